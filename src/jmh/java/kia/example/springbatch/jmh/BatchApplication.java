@@ -0,0 +1,63 @@
+package kia.example.springbatch.jmh;
+
+import kia.example.springbatch.SpringBatchApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Boots the application for a benchmark trial against a fresh file-backed H2 database,
+ * without the web tier and with every Kafka consumer left stopped, so the suite runs
+ * offline.
+ */
+final class BatchApplication {
+
+    private static final Path DATABASE_DIR = Path.of("target", "jmh-db");
+
+    private BatchApplication() {
+    }
+
+    static ConfigurableApplicationContext start(Map<String, Object> properties) throws IOException {
+        FileSystemUtils.deleteRecursively(DATABASE_DIR);
+        Map<String, Object> defaults = new LinkedHashMap<>();
+        defaults.put("spring.datasource.url", "jdbc:h2:file:./" + DATABASE_DIR.resolve("batch") + ";DB_CLOSE_ON_EXIT=FALSE");
+        defaults.put("spring.sql.init.mode", "always");
+        defaults.put("spring.kafka.listener.auto-startup", "false");
+        defaults.put("spring.integration.endpoint.no-auto-startup", "*");
+        defaults.put("spring.main.banner-mode", "off");
+        defaults.put("logging.level.root", "warn");
+        defaults.putAll(properties);
+        return new SpringApplicationBuilder(SpringBatchApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(defaults)
+                .run();
+    }
+
+    /**
+     * Tops the {@code person} table up to {@code rows} rows (schema.sql already inserts ids 1 to 7).
+     */
+    static void seedPersons(ConfigurableApplicationContext context, int rows) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        int next = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM person", Integer.class);
+        for (int from = next; from <= rows; from += 10_000) {
+            List<Object[]> batch = new ArrayList<>();
+            for (int id = from; id < Math.min(rows + 1, from + 10_000); id++) {
+                batch.add(new Object[]{id, "first" + id, "last" + id});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO person (id, first_name, last_name) VALUES (?, ?, ?)", batch);
+        }
+    }
+
+    static void clearOutput(ConfigurableApplicationContext context) {
+        context.getBean(JdbcTemplate.class).update("DELETE FROM person_after_process");
+    }
+}
@@ -0,0 +1,75 @@
+package kia.example.springbatch.jmh;
+
+import kia.example.springbatch.partitioning.ColumnRangePartitioner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of computing the partition boundaries over a skewed {@code person} table: the first
+ * half of the rows has consecutive ids, the second half is spread out with gaps of 1000.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ColumnRangePartitionerBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    @Param({"4", "16", "64"})
+    public int gridSize;
+
+    private ConfigurableApplicationContext context;
+    private ColumnRangePartitioner partitioner;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = BatchApplication.start(Map.of());
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("DELETE FROM person");
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            long id = i < rows / 2 ? i + 1 : rows / 2 + (long) (i - rows / 2 + 1) * 1000;
+            batch.add(new Object[]{id, "first" + i, "last" + i});
+            if (batch.size() == 10_000) {
+                jdbcTemplate.batchUpdate("INSERT INTO person (id, first_name, last_name) VALUES (?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO person (id, first_name, last_name) VALUES (?, ?, ?)", batch);
+        partitioner = new ColumnRangePartitioner(context.getBean(DataSource.class), "person", "id");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<String, ExecutionContext> partition() {
+        return partitioner.partition(gridSize);
+    }
+}
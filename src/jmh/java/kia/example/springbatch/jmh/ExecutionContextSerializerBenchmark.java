@@ -0,0 +1,86 @@
+package kia.example.springbatch.jmh;
+
+import kia.example.springbatch.repository.CompactExecutionContextSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.batch.core.repository.dao.Jackson2ExecutionContextStringSerializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the execution context write at every chunk commit of a partition worker step (and of reading
+ * it back on restart), with {@link CompactExecutionContextSerializer} and Spring Batch's default Jackson
+ * serializer. The context is the one {@code workerStep} stores; the sizes are printed once per fork.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutionContextSerializerBenchmark {
+
+    private final ExecutionContextSerializer compact = new CompactExecutionContextSerializer("compact");
+    private final ExecutionContextSerializer jackson = new Jackson2ExecutionContextStringSerializer();
+    private Map<String, Object> context;
+    private byte[] compactBytes;
+    private byte[] jacksonBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new HashMap<>();
+        context.put("start", 1_250_001L);
+        context.put("end", 1_875_000L);
+        context.put("rowCount", 625_000L);
+        context.put("personItemReader.lastId", 1_503_244L);
+        context.put("personItemReader.read.count", 253_244);
+        context.put("queueWaitMillis", 3L);
+        context.put("chunkSize", 4);
+        context.put("chunkSizeHistory", "2,4");
+        context.put("batch.version", "5.2.2");
+        context.put("batch.stepType", "org.springframework.batch.core.step.tasklet.TaskletStep");
+        context.put("batch.taskletType", "org.springframework.batch.core.step.item.ChunkOrientedTasklet");
+        compactBytes = write(compact);
+        jacksonBytes = write(jackson);
+        System.out.printf("%nbytes per commit: compact %d, jackson %d%n", compactBytes.length, jacksonBytes.length);
+    }
+
+    @Benchmark
+    public byte[] serializeCompact() throws Exception {
+        return write(compact);
+    }
+
+    @Benchmark
+    public Map<String, Object> deserializeCompact() throws Exception {
+        return compact.deserialize(new ByteArrayInputStream(compactBytes));
+    }
+
+    @Benchmark
+    public byte[] serializeJackson() throws Exception {
+        return write(jackson);
+    }
+
+    @Benchmark
+    public Map<String, Object> deserializeJackson() throws Exception {
+        return jackson.deserialize(new ByteArrayInputStream(jacksonBytes));
+    }
+
+    private byte[] write(ExecutionContextSerializer serializer) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        serializer.serialize(context, out);
+        return out.toByteArray();
+    }
+}
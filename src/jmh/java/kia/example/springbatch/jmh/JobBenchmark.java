@@ -0,0 +1,91 @@
+package kia.example.springbatch.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One complete job run per operation, with a fixed chunk size so runs are comparable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class JobBenchmark {
+
+    @Param({"processPersonJob", "partitionedJob"})
+    public String jobName;
+
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"10", "100"})
+    public int chunkSize;
+
+    @Param({"3"})
+    public int gridSize;
+
+    /**
+     * {@code batch.partition.mode} of {@code partitionedJob}: {@code chunk} or {@code sql} (pushdown).
+     */
+    @Param({"chunk"})
+    public String partitionMode;
+
+    private ConfigurableApplicationContext context;
+    private JobLauncher jobLauncher;
+    private Job job;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = BatchApplication.start(Map.of(
+                "batch.chunk.adaptive", "false",
+                "batch.chunk.initial-size", chunkSize,
+                "batch.partition.grid-size", gridSize,
+                "batch.partition.mode", partitionMode));
+        BatchApplication.seedPersons(context, rows);
+        jobLauncher = context.getBean(JobLauncher.class);
+        job = context.getBean(jobName, Job.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void clear() {
+        BatchApplication.clearOutput(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public JobExecution run() throws Exception {
+        JobExecution execution = jobLauncher.run(job, new JobParametersBuilder()
+                .addLong("run.id", System.nanoTime())
+                .toJobParameters());
+        if (execution.getStatus() != BatchStatus.COMPLETED) {
+            throw new IllegalStateException(jobName + " ended " + execution.getStatus());
+        }
+        return execution;
+    }
+}
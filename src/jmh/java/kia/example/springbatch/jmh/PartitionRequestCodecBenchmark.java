@@ -0,0 +1,69 @@
+package kia.example.springbatch.jmh;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kia.example.springbatch.partitioningWithKafka.PartitionRequest;
+import kia.example.springbatch.partitioningWithKafka.PartitionRequestCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode cost of a typical {@link PartitionRequest} (a {@code ColumnRangePartitioner} range) with
+ * {@link PartitionRequestCodec} and with Jackson. The message sizes are printed once per fork.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartitionRequestCodecBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private PartitionRequest request;
+    private byte[] binary;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws Exception {
+        Map<String, Object> context = new TreeMap<>();
+        context.put("start", 1_250_001L);
+        context.put("end", 1_875_000L);
+        context.put("rowCount", 625_000L);
+        request = new PartitionRequest(1_042L, 58_311L, "workerStepConfigPartitioningKafka", context);
+        binary = PartitionRequestCodec.encode(request);
+        json = objectMapper.writeValueAsBytes(request);
+        System.out.printf("%nbytes per message: binary %d, json %d%n", binary.length, json.length);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return PartitionRequestCodec.encode(request);
+    }
+
+    @Benchmark
+    public PartitionRequest decodeBinary() {
+        return PartitionRequestCodec.decode(binary);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws Exception {
+        return objectMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public PartitionRequest decodeJson() throws Exception {
+        return objectMapper.readValue(json, PartitionRequest.class);
+    }
+}
@@ -0,0 +1,33 @@
+package kia.example.springbatch.jmh;
+
+import kia.example.springbatch.model.PersonAfterProcess;
+import kia.example.springbatch.model.PersonRow;
+import kia.example.springbatch.simple.PersonProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonProcessorBenchmark {
+
+    private final PersonProcessor processor = new PersonProcessor();
+    private final PersonRow person = new PersonRow(1L, "John", "Doe");
+
+    @Benchmark
+    public PersonAfterProcess process() {
+        return processor.process(person);
+    }
+}
@@ -0,0 +1,99 @@
+package kia.example.springbatch.jmh;
+
+import jakarta.persistence.EntityManagerFactory;
+import kia.example.springbatch.model.Person;
+import kia.example.springbatch.reader.PersonCursorItemReader;
+import kia.example.springbatch.reader.PersonKeysetItemReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.database.builder.JpaPagingItemReaderBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full scan of the {@code person} table per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PersonReaderBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"100"})
+    public int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private DataSource dataSource;
+    private EntityManagerFactory entityManagerFactory;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = BatchApplication.start(Map.of());
+        BatchApplication.seedPersons(context, rows);
+        dataSource = context.getBean(DataSource.class);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public void keyset(Blackhole blackhole) throws Exception {
+        PersonKeysetItemReader reader = new PersonKeysetItemReader(dataSource);
+        reader.setPageSize(pageSize);
+        drain(reader, blackhole);
+    }
+
+    @Benchmark
+    public void cursor(Blackhole blackhole) throws Exception {
+        PersonCursorItemReader reader = new PersonCursorItemReader(dataSource);
+        reader.setFetchSize(pageSize);
+        drain(reader, blackhole);
+    }
+
+    @Benchmark
+    public void jpaPaging(Blackhole blackhole) throws Exception {
+        drain(new JpaPagingItemReaderBuilder<Person>()
+                .name("jpaPagingReader")
+                .entityManagerFactory(entityManagerFactory)
+                .queryString("SELECT p FROM Person p ORDER BY p.id")
+                .pageSize(pageSize)
+                .build(), blackhole);
+    }
+
+    private static void drain(ItemStreamReader<?> reader, Blackhole blackhole) throws Exception {
+        reader.open(new ExecutionContext());
+        try {
+            Object person;
+            while ((person = reader.read()) != null) {
+                blackhole.consume(person);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+}
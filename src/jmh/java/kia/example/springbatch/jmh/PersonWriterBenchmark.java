@@ -0,0 +1,93 @@
+package kia.example.springbatch.jmh;
+
+import jakarta.persistence.EntityManagerFactory;
+import kia.example.springbatch.model.PersonAfterProcess;
+import kia.example.springbatch.writer.PersonAfterProcessJdbcWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.database.JpaItemWriter;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One chunk written and committed per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonWriterBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int chunkSize;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private PersonAfterProcessJdbcWriter jdbcWriter;
+    private JpaItemWriter<PersonAfterProcess> jpaWriter;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = BatchApplication.start(Map.of());
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        jdbcWriter = context.getBean(PersonAfterProcessJdbcWriter.class);
+        jpaWriter = new JpaItemWriter<>();
+        jpaWriter.setEntityManagerFactory(context.getBean(EntityManagerFactory.class));
+        jpaWriter.afterPropertiesSet();
+    }
+
+    @Setup(Level.Iteration)
+    public void clear() {
+        BatchApplication.clearOutput(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public void jdbcBatch() {
+        write(jdbcWriter);
+    }
+
+    @Benchmark
+    public void jpa() {
+        write(jpaWriter);
+    }
+
+    private void write(ItemWriter<PersonAfterProcess> writer) {
+        List<PersonAfterProcess> items = new ArrayList<>(chunkSize);
+        for (int i = 0; i < chunkSize; i++) {
+            items.add(new PersonAfterProcess("first" + i + " last" + i));
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                writer.write(new Chunk<>(items));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,84 @@
+package kia.example.springbatch.api;
+
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionException;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Launches jobs in the background and returns as soon as the {@link JobExecution} is stored.
+ * Every job name has its own pool of {@code batch.launch.max-concurrent-per-job} threads.
+ * Launches beyond that wait in a queue of {@code batch.launch.queue-capacity} (their execution
+ * stays {@code STARTING} meanwhile). A launch that would not fit in the queue either is rejected
+ * with {@link JobLaunchRejectedException} before any execution is created.
+ */
+@Component
+public class AsyncJobLauncher implements DisposableBean {
+
+    private final JobRepository jobRepository;
+    private final int maxConcurrentPerJob;
+    private final int queueCapacity;
+
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    public AsyncJobLauncher(JobRepository jobRepository,
+                            @Value("${batch.launch.max-concurrent-per-job:1}") int maxConcurrentPerJob,
+                            @Value("${batch.launch.queue-capacity:10}") int queueCapacity) {
+        this.jobRepository = jobRepository;
+        this.maxConcurrentPerJob = Math.max(1, maxConcurrentPerJob);
+        this.queueCapacity = Math.max(0, queueCapacity);
+    }
+
+    public JobExecution launch(Job job, JobParameters jobParameters) throws JobExecutionException {
+        Lane lane = lanes.computeIfAbsent(job.getName(), this::lane);
+        if (!lane.admitted.tryAcquire()) {
+            throw new JobLaunchRejectedException(job.getName(), maxConcurrentPerJob, queueCapacity);
+        }
+        try {
+            return lane.launcher.run(job, jobParameters);
+        } catch (JobExecutionException | RuntimeException ex) {
+            // nothing was queued, so the permit would never be released by the task
+            lane.admitted.release();
+            throw ex;
+        }
+    }
+
+    private Lane lane(String jobName) {
+        Semaphore admitted = new Semaphore(maxConcurrentPerJob + queueCapacity);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrentPerJob);
+        executor.setMaxPoolSize(maxConcurrentPerJob);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(jobName + "-");
+        executor.setTaskDecorator(task -> () -> {
+            try {
+                task.run();
+            } finally {
+                admitted.release();
+            }
+        });
+        executor.initialize();
+        TaskExecutorJobLauncher launcher = new TaskExecutorJobLauncher();
+        launcher.setJobRepository(jobRepository);
+        launcher.setTaskExecutor(executor);
+        return new Lane(admitted, executor, launcher);
+    }
+
+    @Override
+    public void destroy() {
+        lanes.values().forEach(lane -> lane.executor.shutdown());
+    }
+
+    private record Lane(Semaphore admitted, ThreadPoolTaskExecutor executor, TaskExecutorJobLauncher launcher) {
+    }
+}
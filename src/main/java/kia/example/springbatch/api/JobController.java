@@ -4,98 +4,120 @@ import org.springframework.batch.core.Job;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
-import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.net.URI;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The {@code run} endpoints only start a job: they answer {@code 202 Accepted} with the new
+ * execution as soon as it is stored, and the job runs on {@link AsyncJobLauncher}'s threads.
+ * Poll {@code executions/{id}} for its status and progress. A launch over the per-job limit
+ * is answered with {@code 429 Too Many Requests}.
+ */
 @RestController
 @RequestMapping("/api/jobs")
 public class JobController {
 
-    private final JobLauncher jobLauncher;
+    private final AsyncJobLauncher jobLauncher;
+    private final JobExplorer jobExplorer;
     private final Job processPersonJob;
     private final Job partitionedJob;
     private final Job partitionedJobIntegration;
     private final Job partitionJobWithKafka;
     private final Job partitionedJobIntegrationKafka;
+    private final Job remoteChunkingJob;
 
-    public JobController(JobLauncher jobLauncher,
+    public JobController(AsyncJobLauncher jobLauncher,
+                         JobExplorer jobExplorer,
                          Job processPersonJob,
                          Job partitionedJob,
                          Job partitionedJobIntegration,
-                         Job partitionJobWithKafka, Job partitionedJobIntegrationKafka) {
+                         Job partitionJobWithKafka, Job partitionedJobIntegrationKafka,
+                         Job remoteChunkingJob) {
         this.jobLauncher = jobLauncher;
+        this.jobExplorer = jobExplorer;
         this.processPersonJob = processPersonJob;
         this.partitionedJob = partitionedJob;
         this.partitionedJobIntegration = partitionedJobIntegration;
         this.partitionJobWithKafka = partitionJobWithKafka;
         this.partitionedJobIntegrationKafka = partitionedJobIntegrationKafka;
+        this.remoteChunkingJob = remoteChunkingJob;
     }
 
     @GetMapping("simple/run")
-    public ResponseEntity<String> runJob() {
-        try {
-            // Add unique parameters to avoid job execution conflicts
-            JobParameters jobParameters = new JobParametersBuilder()
-                    .addLong("timestamp", System.currentTimeMillis())
-                    .toJobParameters();
-
-            JobExecution execution = jobLauncher.run(processPersonJob, jobParameters);
-            return ResponseEntity.ok("Job started successfully with status: " + execution.getStatus());
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body("Jobs failed to start: " + e.getMessage());
-        }
+    public ResponseEntity<?> runJob() {
+        return launch(processPersonJob);
     }
-    @GetMapping("partitioning/run")
-    public ResponseEntity<String> runPartitionedJob() {
-        try {
-            JobParameters jobParameters = new JobParametersBuilder()
-                    .addLong("timestamp", System.currentTimeMillis()) // Unique parameter
-                    .toJobParameters();
 
-            JobExecution execution = jobLauncher.run(partitionedJob, jobParameters);
-            return ResponseEntity.ok("Job started successfully with status: " + execution.getStatus());
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body("Failed to start job: " + e.getMessage());
-        }
+    @GetMapping("partitioning/run")
+    public ResponseEntity<?> runPartitionedJob() {
+        return launch(partitionedJob);
     }
-    @GetMapping("integration/run")
-    public ResponseEntity<String> runIntegrationJob() {
-        try {
-            JobParameters jobParameters = new JobParametersBuilder()
-                    .addLong("timestamp", System.currentTimeMillis()) // Unique parameter
-                    .toJobParameters();
 
-            JobExecution execution = jobLauncher.run(partitionedJobIntegration, jobParameters);
-            return ResponseEntity.ok("Job started successfully with status: " + execution.getStatus());
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body("Failed to start job: " + e.getMessage());
-        }
+    @GetMapping("integration/run")
+    public ResponseEntity<?> runIntegrationJob() {
+        return launch(partitionedJobIntegration);
     }
+
     @GetMapping("partitioningWithKafka/run")
-    public ResponseEntity<String> runpartitioningWithKafkaJob() {
-        try {
-            JobParameters jobParameters = new JobParametersBuilder()
-                    .addLong("timestamp", System.currentTimeMillis()) // Unique parameter
-                    .toJobParameters();
+    public ResponseEntity<?> runpartitioningWithKafkaJob() {
+        return launch(partitionJobWithKafka);
+    }
 
-            JobExecution execution = jobLauncher.run(partitionJobWithKafka, jobParameters);
-            return ResponseEntity.ok("Job started successfully with status: " + execution.getStatus());
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body("Failed to start job: " + e.getMessage());
+    @GetMapping("partitioningWithIntegrationAndKafka/run")
+    public ResponseEntity<?> runPartitioningWithIntegrationAndKafkaJob() {
+        return launch(partitionedJobIntegrationKafka);
+    }
+
+    @GetMapping("remoteChunking/run")
+    public ResponseEntity<?> runRemoteChunkingJob() {
+        return launch(remoteChunkingJob);
+    }
+
+    @GetMapping("executions/{id}")
+    public ResponseEntity<JobExecutionView> execution(@PathVariable long id) {
+        JobExecution execution = jobExplorer.getJobExecution(id);
+        if (execution == null) {
+            return ResponseEntity.notFound().build();
         }
+        return ResponseEntity.ok(JobExecutionView.of(execution));
     }
-    @GetMapping("partitioningWithIntegrationAndKafka/run")
-    public ResponseEntity<String> runPartitioningWithIntegrationAndKafkaJob() {
+
+    /**
+     * Executions of {@code jobName} that are queued or running.
+     */
+    @GetMapping("executions")
+    public List<JobExecutionView> runningExecutions(@RequestParam String jobName) {
+        return jobExplorer.findRunningJobExecutions(jobName).stream()
+                .sorted(Comparator.comparing(JobExecution::getId))
+                .map(JobExecutionView::of)
+                .toList();
+    }
+
+    private ResponseEntity<?> launch(Job job) {
         try {
+            // Add unique parameters to avoid job execution conflicts, also between launches in the same millisecond
             JobParameters jobParameters = new JobParametersBuilder()
-                    .addLong("timestamp", System.currentTimeMillis()) // Unique parameter
+                    .addLong("timestamp", System.currentTimeMillis())
+                    .addString("launchId", UUID.randomUUID().toString())
                     .toJobParameters();
 
-            JobExecution execution = jobLauncher.run(partitionedJobIntegrationKafka, jobParameters);
-            return ResponseEntity.ok("Job started successfully with status: " + execution.getStatus());
+            JobExecution execution = jobLauncher.launch(job, jobParameters);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/jobs/executions/" + execution.getId()))
+                    .body(JobExecutionView.of(execution));
+        } catch (JobLaunchRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Failed to start job: " + e.getMessage());
         }
@@ -0,0 +1,42 @@
+package kia.example.springbatch.api;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * What the job API returns for an execution: its state plus the counters of every step.
+ * {@code progress} is the share of rows written, known only for partitioned steps whose
+ * partitions carry a {@code rowCount}; {@code null} otherwise.
+ */
+public record JobExecutionView(long executionId, String jobName, String status, String exitCode,
+                               LocalDateTime startTime, LocalDateTime endTime, Double progress,
+                               List<StepView> steps) {
+
+    public record StepView(String name, String status, long readCount, long writeCount, long commitCount,
+                           long rollbackCount) {
+    }
+
+    public static JobExecutionView of(JobExecution execution) {
+        long rows = 0;
+        long written = 0;
+        for (StepExecution step : execution.getStepExecutions()) {
+            if (step.getExecutionContext().containsKey("rowCount")) {
+                rows += step.getExecutionContext().getLong("rowCount");
+                written += step.getWriteCount();
+            }
+        }
+        List<StepView> steps = execution.getStepExecutions().stream()
+                .sorted(Comparator.comparing(StepExecution::getStepName))
+                .map(step -> new StepView(step.getStepName(), step.getStatus().name(), step.getReadCount(),
+                        step.getWriteCount(), step.getCommitCount(), step.getRollbackCount()))
+                .toList();
+        return new JobExecutionView(execution.getId(), execution.getJobInstance().getJobName(),
+                execution.getStatus().name(), execution.getExitStatus().getExitCode(),
+                execution.getStartTime(), execution.getEndTime(),
+                rows == 0 ? null : Math.min(1.0, (double) written / rows), steps);
+    }
+}
@@ -0,0 +1,14 @@
+package kia.example.springbatch.api;
+
+import org.springframework.batch.core.JobExecutionException;
+
+/**
+ * Thrown by {@link AsyncJobLauncher} when a job already has as many executions running and
+ * queued as it is allowed to.
+ */
+public class JobLaunchRejectedException extends JobExecutionException {
+
+    public JobLaunchRejectedException(String jobName, int maxConcurrent, int queueCapacity) {
+        super("Job " + jobName + " already has " + maxConcurrent + " running and " + queueCapacity + " queued executions");
+    }
+}
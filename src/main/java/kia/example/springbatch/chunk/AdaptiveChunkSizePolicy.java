@@ -0,0 +1,216 @@
+package kia.example.springbatch.chunk;
+
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+import org.springframework.batch.repeat.policy.CompletionPolicySupport;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Commit interval that tunes itself: after every chunk the transaction time and
+ * items/sec are measured and the next chunk is sized so its transaction takes
+ * about {@code targetMillis}, staying within {@code [minSize, maxSize]}.
+ * A size changes at most by a factor of two per chunk, is left alone while it is
+ * within 20% of the ideal one (so it does not jitter) and is halved after a
+ * failed chunk.
+ * <p>
+ * One instance can back a step that runs as several partitions at once, the
+ * state is kept per {@link StepExecution}. The current size is stored in the
+ * step {@code ExecutionContext} under {@code chunkSize} (a restart picks it up),
+ * and the last sizes used are written under {@code chunkSizeHistory} when the
+ * step reaches its last chunk. Register the policy as the step's chunk listener too.
+ */
+public class AdaptiveChunkSizePolicy extends CompletionPolicySupport implements ChunkListener {
+
+    public static final String CHUNK_SIZE = "chunkSize";
+    public static final String CHUNK_SIZE_HISTORY = "chunkSizeHistory";
+
+    private static final int KEPT_SAMPLES = 1000;
+    private static final int PERSISTED_HISTORY = 32;
+
+    private final int initialSize;
+    private final int minSize;
+    private final int maxSize;
+    private final long targetNanos;
+
+    private final Map<Long, Controller> controllers = new ConcurrentHashMap<>();
+
+    public AdaptiveChunkSizePolicy(int initialSize, int minSize, int maxSize, long targetMillis) {
+        this.minSize = Math.max(1, minSize);
+        this.maxSize = Math.max(this.minSize, maxSize);
+        this.initialSize = clamp(initialSize, this.minSize, this.maxSize);
+        this.targetNanos = targetMillis * 1_000_000;
+    }
+
+    /**
+     * Per-chunk measurements (the last 1000) of a running step execution, empty once it has finished.
+     */
+    public List<ChunkSample> getHistory(long stepExecutionId) {
+        Controller controller = controllers.get(stepExecutionId);
+        return controller == null ? List.of() : controller.history();
+    }
+
+    /**
+     * Size the next chunk of a running step execution will use, {@code -1} once it has finished.
+     */
+    public int getCurrentSize(long stepExecutionId) {
+        Controller controller = controllers.get(stepExecutionId);
+        return controller == null ? -1 : controller.size;
+    }
+
+    @Override
+    public RepeatContext start(RepeatContext parent) {
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        int size = stepContext == null ? initialSize : controller(stepContext.getStepExecution()).size;
+        return new SizedContext(parent, size);
+    }
+
+    @Override
+    public boolean isComplete(RepeatContext context) {
+        return context.getStartedCount() >= ((SizedContext) context).size;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        controller(context.getStepContext().getStepExecution()).chunkStarted();
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        Controller controller = controller(stepExecution);
+        boolean lastChunk = !controller.chunkCommitted();
+        stepExecution.getExecutionContext().putInt(CHUNK_SIZE, controller.size);
+        if (lastChunk) {
+            finish(stepExecution);
+        }
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        Controller controller = controller(stepExecution);
+        controller.chunkFailed();
+        stepExecution.getExecutionContext().putInt(CHUNK_SIZE, controller.size);
+        // a failed chunk ends the step, a restart gets a new step execution
+        finish(stepExecution);
+    }
+
+    private void finish(StepExecution stepExecution) {
+        Controller controller = controllers.remove(stepExecution.getId());
+        if (controller != null) {
+            stepExecution.getExecutionContext().putString(CHUNK_SIZE_HISTORY, controller.sizeHistory());
+        }
+    }
+
+    private Controller controller(StepExecution stepExecution) {
+        return controllers.computeIfAbsent(stepExecution.getId(), id -> new Controller(stepExecution,
+                clamp(stepExecution.getExecutionContext().getInt(CHUNK_SIZE, initialSize), minSize, maxSize)));
+    }
+
+    private static int clamp(long value, int min, int max) {
+        return (int) Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * One committed (or failed) chunk.
+     */
+    public record ChunkSample(int chunkSize, long items, long millis, double itemsPerSecond) {
+    }
+
+    private static final class SizedContext extends RepeatContextSupport {
+        private final int size;
+
+        private SizedContext(RepeatContext parent, int size) {
+            super(parent);
+            this.size = size;
+        }
+    }
+
+    private final class Controller {
+        private final StepExecution stepExecution;
+        private final Deque<ChunkSample> samples = new ArrayDeque<>();
+        private volatile int size;
+        private long startNanos;
+        private long startReadCount;
+
+        private Controller(StepExecution stepExecution, int size) {
+            this.stepExecution = stepExecution;
+            this.size = size;
+        }
+
+        void chunkStarted() {
+            startNanos = System.nanoTime();
+            startReadCount = readCount();
+        }
+
+        /**
+         * @return {@code false} when the chunk came back short, i.e. the reader is exhausted
+         */
+        boolean chunkCommitted() {
+            long nanos = System.nanoTime() - startNanos;
+            long items = readCount() - startReadCount;
+            sample(items, nanos);
+            if (items < size) {
+                return false; // a short chunk says nothing about how long a full one takes
+            }
+            long ideal = targetNanos * items / Math.max(1, nanos);
+            if (Math.abs(ideal - size) > size / 5) {
+                size = clamp(clamp(ideal, size / 2, size * 2), minSize, maxSize);
+            }
+            return true;
+        }
+
+        void chunkFailed() {
+            sample(readCount() - startReadCount, System.nanoTime() - startNanos);
+            size = clamp(size / 2, minSize, maxSize);
+        }
+
+        private void sample(long items, long nanos) {
+            double perSecond = nanos == 0 ? 0 : items * 1e9 / nanos;
+            synchronized (samples) {
+                if (samples.size() == KEPT_SAMPLES) {
+                    samples.removeFirst();
+                }
+                samples.addLast(new ChunkSample(size, items, nanos / 1_000_000, perSecond));
+            }
+        }
+
+        private long readCount() {
+            return stepExecution.getReadCount() + stepExecution.getReadSkipCount();
+        }
+
+        List<ChunkSample> history() {
+            synchronized (samples) {
+                return List.copyOf(samples);
+            }
+        }
+
+        /**
+         * The last sizes in the order they were used with consecutive repeats collapsed, e.g. {@code "10,20,40,25"}.
+         */
+        String sizeHistory() {
+            List<Integer> sizes = new ArrayList<>();
+            for (ChunkSample sample : history()) {
+                if (sizes.isEmpty() || sizes.get(sizes.size() - 1) != sample.chunkSize()) {
+                    sizes.add(sample.chunkSize());
+                }
+            }
+            String prefix = sizes.size() > PERSISTED_HISTORY ? "...," : "";
+            return sizes.subList(Math.max(0, sizes.size() - PERSISTED_HISTORY), sizes.size()).stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(",", prefix, ""));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package kia.example.springbatch.chunk;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the commit-interval policy for the chunk steps from {@code batch.chunk.*}.
+ * With {@code batch.chunk.adaptive=false} the policy keeps the starting size,
+ * otherwise it adapts between {@code min-size} and {@code max-size}. The starting
+ * size is the step's own unless {@code batch.chunk.initial-size} overrides it.
+ */
+@Component
+public class ChunkSizePolicyFactory {
+
+    private final boolean adaptive;
+    private final int initialSize;
+    private final int minSize;
+    private final int maxSize;
+    private final long targetMillis;
+
+    public ChunkSizePolicyFactory(@Value("${batch.chunk.adaptive:false}") boolean adaptive,
+                                  @Value("${batch.chunk.initial-size:0}") int initialSize,
+                                  @Value("${batch.chunk.min-size:1}") int minSize,
+                                  @Value("${batch.chunk.max-size:1000}") int maxSize,
+                                  @Value("${batch.chunk.target-millis:200}") long targetMillis) {
+        this.adaptive = adaptive;
+        this.initialSize = initialSize;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetMillis = targetMillis;
+    }
+
+    /**
+     * @param stepSize size of the first chunk, and of every chunk when adapting is switched off
+     */
+    public AdaptiveChunkSizePolicy create(int stepSize) {
+        int size = initialSize > 0 ? initialSize : stepSize;
+        if (!adaptive) {
+            return new AdaptiveChunkSizePolicy(size, size, size, targetMillis);
+        }
+        return new AdaptiveChunkSizePolicy(size, minSize, maxSize, targetMillis);
+    }
+}
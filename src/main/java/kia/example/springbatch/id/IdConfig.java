@@ -0,0 +1,18 @@
+package kia.example.springbatch.id;
+
+import kia.example.springbatch.model.PersonAfterProcess;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class IdConfig {
+
+    /**
+     * Ids of {@link PersonAfterProcess} for the JDBC writers, from the sequence its JPA mapping uses.
+     */
+    @Bean
+    public PooledIdAllocator personAfterProcessIds(JdbcTemplate jdbcTemplate) {
+        return new PooledIdAllocator(jdbcTemplate, PersonAfterProcess.ID_SEQUENCE, PersonAfterProcess.ID_BLOCK_SIZE);
+    }
+}
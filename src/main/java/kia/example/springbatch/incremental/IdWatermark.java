@@ -0,0 +1,90 @@
+package kia.example.springbatch.incremental;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * High-water mark of an incremental job over a table with ascending numeric keys: the highest key
+ * the last completed execution processed, one row per job name in {@code batch_watermark}
+ * (0 before the first completed execution, so keys are expected to start at 1).
+ * <p>
+ * As a listener it fixes the execution's window when the job starts: {@code watermark.after} (the
+ * mark) and {@code watermark.to} (the highest key at that moment) in the job execution context,
+ * where the readers and the partitioner pick it up. A restart keeps the window of the failed
+ * execution. {@link #advance} is the job's last step and moves the mark to {@code watermark.to} in the
+ * step's transaction, only if it still is {@code watermark.after}, so the mark never skips or goes
+ * back over a range. That check comes after the rows are written, though: two overlapping executions
+ * of the same job both process the window and only the second one to finish fails. Duplicates are
+ * prevented by not running the job concurrently, as {@code batch.launch.max-concurrent-per-job: 1}
+ * (the default) ensures for launches through the API.
+ * <p>
+ * Rows are found by key only, so rows inserted below the mark after a run (or updated) are not
+ * picked up.
+ */
+public class IdWatermark implements JobExecutionListener {
+
+    public static final String AFTER = "watermark.after";
+    public static final String TO = "watermark.to";
+
+    private static final Logger log = LoggerFactory.getLogger(IdWatermark.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String maxKeySql;
+
+    public IdWatermark(JdbcTemplate jdbcTemplate, String table, String keyColumn) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxKeySql = "SELECT MAX(" + keyColumn + ") FROM " + table;
+    }
+
+    public long lastId(String jobName) {
+        return jdbcTemplate.query("SELECT last_id FROM batch_watermark WHERE job_name = ?",
+                rs -> rs.next() ? rs.getLong(1) : 0L, jobName);
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        ExecutionContext context = jobExecution.getExecutionContext();
+        if (context.containsKey(TO)) {
+            return;
+        }
+        long after = lastId(jobExecution.getJobInstance().getJobName());
+        Long max = jdbcTemplate.queryForObject(maxKeySql, Long.class);
+        context.putLong(AFTER, after);
+        context.putLong(TO, max == null ? after : Math.max(after, max));
+    }
+
+    /**
+     * Tasklet of the job's last step.
+     */
+    public RepeatStatus advance(StepContribution contribution, ChunkContext chunkContext) {
+        JobExecution jobExecution = chunkContext.getStepContext().getStepExecution().getJobExecution();
+        String jobName = jobExecution.getJobInstance().getJobName();
+        long after = jobExecution.getExecutionContext().getLong(AFTER);
+        long to = jobExecution.getExecutionContext().getLong(TO);
+        int updated = jdbcTemplate.update("UPDATE batch_watermark SET last_id = ? WHERE job_name = ? AND last_id = ?",
+                to, jobName, after);
+        if (updated == 0 && !(after == 0 && insertFirst(jobName, to))) {
+            throw new IllegalStateException("Watermark of " + jobName + " is no longer " + after
+                    + ", another execution moved it");
+        }
+        log.debug("{} watermark: {} -> {}", jobName, after, to);
+        return RepeatStatus.FINISHED;
+    }
+
+    private boolean insertFirst(String jobName, long to) {
+        try {
+            jdbcTemplate.update("INSERT INTO batch_watermark (job_name, last_id) VALUES (?, ?)", jobName, to);
+            return true;
+        } catch (DuplicateKeyException ex) {
+            return false;
+        }
+    }
+}
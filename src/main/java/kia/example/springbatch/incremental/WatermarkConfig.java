@@ -0,0 +1,29 @@
+package kia.example.springbatch.incremental;
+
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+public class WatermarkConfig {
+
+    /**
+     * Mark of the jobs reading {@code person}, used when {@code batch.incremental.enabled} is set.
+     */
+    @Bean
+    public IdWatermark personWatermark(JdbcTemplate jdbcTemplate) {
+        return new IdWatermark(jdbcTemplate, "person", "id");
+    }
+
+    @Bean
+    public Step advanceWatermarkStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                     IdWatermark personWatermark) {
+        return new StepBuilder("advanceWatermarkStep", jobRepository)
+                .tasklet(personWatermark::advance, transactionManager)
+                .build();
+    }
+}
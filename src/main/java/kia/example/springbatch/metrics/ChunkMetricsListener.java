@@ -0,0 +1,273 @@
+package kia.example.springbatch.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.builder.AbstractTaskletStepBuilder;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.batch.item.Chunk;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every chunk of the steps it is registered on and publishes, per chunk, how long
+ * was spent reading, processing, writing and committing, as Micrometer timers with a
+ * percentile histogram:
+ * <ul>
+ *     <li>{@code batch.chunk.read}, {@code batch.chunk.process}, {@code batch.chunk.write}</li>
+ *     <li>{@code batch.chunk.commit}: from the end of the write to the end of the chunk, that is
+ *     the stream state and step execution update plus the transaction commit</li>
+ *     <li>{@code batch.chunk.items}: items written per chunk</li>
+ *     <li>{@code batch.items}: read, written, filtered and skipped items ({@code outcome} tag)</li>
+ * </ul>
+ * Every meter is tagged with {@code job}, {@code step} and {@code partition}, the partition
+ * being the name {@link kia.example.springbatch.partitioning.ColumnRangePartitioner} gave it
+ * ({@code none} for a step that is not partitioned), so a straggling partition stands out.
+ * <p>
+ * Per item only two {@link System#nanoTime()} calls are made, the meters are updated once per
+ * chunk. A chunk runs on the thread of its step execution, so the running totals are kept in
+ * a thread local and one instance serves every step and partition.
+ * Turn it off with {@code batch.metrics.enabled=false}.
+ */
+@Component
+public class ChunkMetricsListener implements StepExecutionListener, ChunkListener,
+        ItemReadListener<Object>, ItemProcessListener<Object, Object>, ItemWriteListener<Object> {
+
+    private static final String NO_PARTITION = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+
+    private final ThreadLocal<StepMeters> current = new ThreadLocal<>();
+
+    public ChunkMetricsListener(MeterRegistry meterRegistry,
+                                @Value("${batch.metrics.enabled:true}") boolean enabled) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Registers this listener on a chunk step, or leaves the step alone when metrics are disabled.
+     */
+    public AbstractTaskletStepBuilder<?> register(AbstractTaskletStepBuilder<?> step) {
+        if (!enabled) {
+            return step;
+        }
+        step.listener((StepExecutionListener) this);
+        step.listener((ChunkListener) this);
+        if (step instanceof SimpleStepBuilder<?, ?> chunkStep) {
+            chunkStep.listener((ItemReadListener<Object>) this);
+            chunkStep.listener((ItemProcessListener<Object, Object>) this);
+            chunkStep.listener((ItemWriteListener<Object>) this);
+        }
+        return step;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        current.set(new StepMeters(meterRegistry, stepExecution));
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        current.remove();
+        return null;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        StepMeters meters = current.get();
+        if (meters != null) {
+            meters.chunkStarted();
+        }
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        StepMeters meters = current.get();
+        if (meters != null) {
+            meters.chunkEnded(context.getStepContext().getStepExecution());
+        }
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        StepMeters meters = current.get();
+        if (meters != null) {
+            meters.chunkEnded(context.getStepContext().getStepExecution());
+        }
+    }
+
+    @Override
+    public void beforeRead() {
+        StepMeters meters = current.get();
+        if (meters != null) {
+            meters.mark = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterRead(Object item) {
+        StepMeters meters = current.get();
+        if (meters != null) {
+            meters.readNanos += System.nanoTime() - meters.mark;
+        }
+    }
+
+    @Override
+    public void onReadError(Exception ex) {
+        afterRead(null);
+    }
+
+    @Override
+    public void beforeProcess(Object item) {
+        StepMeters meters = current.get();
+        if (meters != null) {
+            meters.mark = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterProcess(Object item, Object result) {
+        StepMeters meters = current.get();
+        if (meters != null) {
+            meters.processNanos += System.nanoTime() - meters.mark;
+        }
+    }
+
+    @Override
+    public void onProcessError(Object item, Exception e) {
+        afterProcess(item, null);
+    }
+
+    @Override
+    public void beforeWrite(Chunk<?> items) {
+        StepMeters meters = current.get();
+        if (meters != null) {
+            meters.mark = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterWrite(Chunk<?> items) {
+        StepMeters meters = current.get();
+        if (meters != null) {
+            long now = System.nanoTime();
+            meters.writeNanos += now - meters.mark;
+            meters.writeEnd = now;
+        }
+    }
+
+    @Override
+    public void onWriteError(Exception exception, Chunk<?> items) {
+        afterWrite(items);
+    }
+
+    /**
+     * Meters of one step execution plus the totals of the chunk it is running.
+     */
+    private static final class StepMeters {
+
+        private final Timer read;
+        private final Timer process;
+        private final Timer write;
+        private final Timer commit;
+        private final DistributionSummary chunkItems;
+        private final Counter itemsRead;
+        private final Counter itemsWritten;
+        private final Counter itemsFiltered;
+        private final Counter itemsSkipped;
+
+        private long mark;
+        private long readNanos;
+        private long processNanos;
+        private long writeNanos;
+        private long writeEnd;
+
+        private long lastReadCount;
+        private long lastWriteCount;
+        private long lastFilterCount;
+        private long lastSkipCount;
+
+        StepMeters(MeterRegistry registry, StepExecution stepExecution) {
+            String stepName = stepExecution.getStepName();
+            int separator = stepName.indexOf(':');
+            Tags tags = Tags.of(
+                    "job", stepExecution.getJobExecution().getJobInstance().getJobName(),
+                    "step", separator < 0 ? stepName : stepName.substring(0, separator),
+                    "partition", separator < 0 ? NO_PARTITION : stepName.substring(separator + 1));
+            this.read = timer(registry, "batch.chunk.read", "Time spent reading the items of a chunk", tags);
+            this.process = timer(registry, "batch.chunk.process", "Time spent processing the items of a chunk", tags);
+            this.write = timer(registry, "batch.chunk.write", "Time spent writing a chunk", tags);
+            this.commit = timer(registry, "batch.chunk.commit", "Time from the end of the write to the chunk commit", tags);
+            this.chunkItems = DistributionSummary.builder("batch.chunk.items")
+                    .description("Items written per chunk")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.itemsRead = items(registry, "read", tags);
+            this.itemsWritten = items(registry, "written", tags);
+            this.itemsFiltered = items(registry, "filtered", tags);
+            this.itemsSkipped = items(registry, "skipped", tags);
+            // a restarted step execution starts from the counts it was saved with
+            this.lastReadCount = stepExecution.getReadCount();
+            this.lastWriteCount = stepExecution.getWriteCount();
+            this.lastFilterCount = stepExecution.getFilterCount();
+            this.lastSkipCount = stepExecution.getSkipCount();
+        }
+
+        void chunkStarted() {
+            readNanos = 0;
+            processNanos = 0;
+            writeNanos = 0;
+            writeEnd = 0;
+        }
+
+        void chunkEnded(StepExecution stepExecution) {
+            read.record(readNanos, TimeUnit.NANOSECONDS);
+            process.record(processNanos, TimeUnit.NANOSECONDS);
+            if (writeEnd != 0) {
+                write.record(writeNanos, TimeUnit.NANOSECONDS);
+                commit.record(System.nanoTime() - writeEnd, TimeUnit.NANOSECONDS);
+            }
+            long written = stepExecution.getWriteCount() - lastWriteCount;
+            chunkItems.record(written);
+            itemsRead.increment(stepExecution.getReadCount() - lastReadCount);
+            itemsWritten.increment(written);
+            itemsFiltered.increment(stepExecution.getFilterCount() - lastFilterCount);
+            itemsSkipped.increment(stepExecution.getSkipCount() - lastSkipCount);
+            lastReadCount = stepExecution.getReadCount();
+            lastWriteCount = stepExecution.getWriteCount();
+            lastFilterCount = stepExecution.getFilterCount();
+            lastSkipCount = stepExecution.getSkipCount();
+        }
+
+        private static Timer timer(MeterRegistry registry, String name, String description, Tags tags) {
+            return Timer.builder(name)
+                    .description(description)
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        private static Counter items(MeterRegistry registry, String outcome, Tags tags) {
+            return Counter.builder("batch.items")
+                    .description("Items handled by the chunk steps")
+                    .tags(tags)
+                    .tag("outcome", outcome)
+                    .register(registry);
+        }
+    }
+}
@@ -4,11 +4,22 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 
+/**
+ * Ids come from {@link #ID_SEQUENCE} in blocks of {@link #ID_BLOCK_SIZE}, for JPA and for the JDBC
+ * writers ({@code PooledIdAllocator}) alike, so inserts can be batched. The sequence is created in
+ * {@code schema.sql}, its {@code INCREMENT BY} has to stay equal to the block size.
+ */
 @Entity
 public class PersonAfterProcess {
+
+    public static final String ID_SEQUENCE = "person_after_process_seq";
+    public static final int ID_BLOCK_SIZE = 1000;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_BLOCK_SIZE)
     private Long id ;
     private String name ;
 
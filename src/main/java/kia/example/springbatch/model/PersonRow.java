@@ -0,0 +1,11 @@
+package kia.example.springbatch.model;
+
+import java.io.Serializable;
+
+/**
+ * Read-only view of a {@code person} row, as the chunk steps read it.
+ * Unlike the {@link Person} entity it is never attached to a persistence context
+ * and carries only what the processor needs. Serializable so remote chunking can ship it to workers.
+ */
+public record PersonRow(long id, String firstName, String lastName) implements Serializable {
+}
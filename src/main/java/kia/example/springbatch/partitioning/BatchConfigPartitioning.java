@@ -2,8 +2,18 @@ package kia.example.springbatch.partitioning;
 
 
 
-import kia.example.springbatch.model.Person;
+import io.micrometer.core.instrument.MeterRegistry;
+import kia.example.springbatch.chunk.AdaptiveChunkSizePolicy;
+import kia.example.springbatch.chunk.ChunkSizePolicyFactory;
+import kia.example.springbatch.id.PooledIdAllocator;
+import kia.example.springbatch.incremental.IdWatermark;
+import kia.example.springbatch.metrics.ChunkMetricsListener;
+import kia.example.springbatch.model.PersonRow;
 import kia.example.springbatch.model.PersonAfterProcess;
+import kia.example.springbatch.reader.AbstractIdRangeItemReader;
+import kia.example.springbatch.reader.PersonItemReaderFactory;
+import kia.example.springbatch.simple.PersonProcessor;
+import kia.example.springbatch.writer.PersonAfterProcessJdbcWriter;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
@@ -11,92 +21,150 @@ import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.partition.PartitionHandler;
 import org.springframework.batch.core.partition.support.Partitioner;
-import org.springframework.batch.core.partition.support.TaskExecutorPartitionHandler;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.database.JpaItemWriter;
-import org.springframework.batch.item.database.JpaPagingItemReader;
-import org.springframework.batch.item.database.builder.JpaPagingItemReaderBuilder;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import jakarta.persistence.EntityManagerFactory;
 import org.springframework.transaction.PlatformTransactionManager;
 
-import java.util.Map;
+import javax.sql.DataSource;
 
 @Configuration
 @EnableBatchProcessing
 public class BatchConfigPartitioning {
-    private final EntityManagerFactory entityManagerFactory;
+    private final PersonItemReaderFactory personItemReaderFactory;
     private final ItemProcessor personProcessor;
+    private final PersonAfterProcessJdbcWriter personAfterProcessWriter;
 
 
-    public BatchConfigPartitioning(EntityManagerFactory entityManagerFactory,
-                       ItemProcessor personProcessor) {
-        this.entityManagerFactory = entityManagerFactory;
+    public BatchConfigPartitioning(PersonItemReaderFactory personItemReaderFactory,
+                       ItemProcessor personProcessor,
+                       PersonAfterProcessJdbcWriter personAfterProcessWriter) {
+        this.personItemReaderFactory = personItemReaderFactory;
         this.personProcessor = personProcessor;
+        this.personAfterProcessWriter = personAfterProcessWriter;
     }
 
 
     @Bean
     @StepScope
-    public JpaPagingItemReader<Person> readerPartitioner(
-            @Value("#{stepExecutionContext['start']}") Integer start,
-            @Value("#{stepExecutionContext['end']}") Integer end) {
-        return new JpaPagingItemReaderBuilder<Person>()
-                .name("personItemReader")
-                .entityManagerFactory(entityManagerFactory)
-                .queryString("SELECT p FROM Person p WHERE p.id BETWEEN :start AND :end")
-                .parameterValues(Map.of("start", start, "end", end)) // Pass dynamic parameters
-                .pageSize(3)
-                .build();
+    public AbstractIdRangeItemReader<PersonRow> readerPartitioner(
+            @Value("#{stepExecutionContext['start']}") Long start,
+            @Value("#{stepExecutionContext['end']}") Long end) {
+        return personItemReaderFactory.create("personItemReader", start, end); // Pass dynamic range
     }
 
 
-    @Bean
-    public JpaItemWriter<PersonAfterProcess> writerPartitioner() {
-        JpaItemWriter<PersonAfterProcess> writer = new JpaItemWriter<>();
-        writer.setEntityManagerFactory(entityManagerFactory);
-        return writer;
-    }
 
 
+    /**
+     * {@link PersonProcessor}'s transform as one statement, for {@code batch.partition.mode=sql};
+     * {@code COALESCE} keeps Java's {@code "null"} for missing names. See {@link SqlPushdownTasklet}
+     * for the parameters.
+     */
+    static final String PUSHDOWN_SQL = "INSERT INTO person_after_process (id, name)"
+            + " SELECT ? + ROW_NUMBER() OVER (ORDER BY id) - 1, COALESCE(first_name, 'null') || ' ' || COALESCE(last_name, 'null')"
+            + " FROM person WHERE id > ? AND id <= ?";
 
+    @Bean
+    @StepScope
+    public SqlPushdownTasklet pushdownTasklet(JdbcTemplate jdbcTemplate, PooledIdAllocator personAfterProcessIds,
+                                              @Value("#{stepExecutionContext['start']}") Long start,
+                                              @Value("#{stepExecutionContext['end']}") Long end) {
+        return new SqlPushdownTasklet(jdbcTemplate, personAfterProcessIds, "person", "id", PUSHDOWN_SQL, start, end);
+    }
 
+    /**
+     * In {@code chunk} mode (default) every row goes through the reader, {@link PersonProcessor} and
+     * the JDBC writer; in {@code sql} mode each partition is a single {@link SqlPushdownTasklet} statement.
+     */
     @Bean
     @Qualifier("workerStep")
-    public Step workerStep(JobRepository jobRepository, PlatformTransactionManager transactionManager ,JpaPagingItemReader readerPartitioner ) {
-        return new StepBuilder("workerStep" ,jobRepository )
-                .<Person, PersonAfterProcess>chunk(2 , transactionManager)
+    public Step workerStep(JobRepository jobRepository, PlatformTransactionManager transactionManager ,AbstractIdRangeItemReader<PersonRow> readerPartitioner ,
+                           ChunkSizePolicyFactory chunkSizePolicyFactory, ChunkMetricsListener chunkMetricsListener,
+                           @Qualifier("pushdownTasklet") SqlPushdownTasklet pushdownTasklet,
+                           @Value("${batch.partition.mode:chunk}") String mode) {
+        if ("sql".equalsIgnoreCase(mode)) {
+            return new StepBuilder("workerStep", jobRepository)
+                    .tasklet(pushdownTasklet, transactionManager)
+                    .build();
+        }
+        AdaptiveChunkSizePolicy chunkSizePolicy = chunkSizePolicyFactory.create(2);
+        return chunkMetricsListener.register(new StepBuilder("workerStep" ,jobRepository )
+                .<PersonRow, PersonAfterProcess>chunk(chunkSizePolicy , transactionManager)
                 .reader(readerPartitioner)
                 .processor(personProcessor)
-                .writer(writerPartitioner())
+                .writer(personAfterProcessWriter)
+                .listener(chunkSizePolicy))
                 .build();
     }
+    /**
+     * Splits the whole table, or in incremental mode only the job's {@link IdWatermark} window.
+     */
+    @Bean
+    @StepScope
+    public ColumnRangePartitioner columnRangePartitioner(DataSource dataSource,
+                                                         @Value("#{jobExecutionContext['" + IdWatermark.AFTER + "']}") Long after,
+                                                         @Value("#{jobExecutionContext['" + IdWatermark.TO + "']}") Long to) {
+        ColumnRangePartitioner partitioner = new ColumnRangePartitioner(dataSource, "person", "id");
+        partitioner.setRange(after, to);
+        return partitioner;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor partitionTaskExecutor(DataSource dataSource,
+                                                        @Value("${batch.partition.concurrency:0}") int concurrency) {
+        // each partition uses the chunk transaction's connection plus any the reader opens itself
+        int workers = BoundedPartitionHandler.concurrency(dataSource, concurrency,
+                1 + personItemReaderFactory.extraConnectionsPerReader());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers); // partitions beyond this wait in the queue
+        executor.setThreadNamePrefix("workerStep-");
+        return executor;
+    }
+
     @Bean
-    public PartitionHandler partitionHandler(Step workerStep) {
-        TaskExecutorPartitionHandler handler = new TaskExecutorPartitionHandler();
-        handler.setTaskExecutor(new SimpleAsyncTaskExecutor()); // Parallel execution
-        handler.setStep(workerStep); // Worker step
-        handler.setGridSize(3); // Number of partitions
+    public PartitionHandler partitionHandler(Step workerStep, ThreadPoolTaskExecutor partitionTaskExecutor,
+                                             PartitionGridSize partitionGridSize, MeterRegistry meterRegistry,
+                                             @Value("${batch.partition.micro.enabled:false}") boolean microPartitions,
+                                             @Value("${batch.partition.micro.ranges-per-worker:8}") int rangesPerWorker) {
+        BoundedPartitionHandler handler = new BoundedPartitionHandler(workerStep, partitionTaskExecutor, partitionGridSize, meterRegistry);
+        if (microPartitions) {
+            handler.setRangesPerWorker(rangesPerWorker);
+        }
         return handler;
     }
 
     @Bean
-    public Step masterStep( JobRepository jobRepository ,@Qualifier("workerStep") Step stepWorker, ColumnRangePartitioner columnRangePartitioner) {
+    public Step masterStep( JobRepository jobRepository , ColumnRangePartitioner columnRangePartitioner, PartitionHandler partitionHandler) {
         return new StepBuilder("masterStep" , jobRepository)
                 .partitioner("workerStep", columnRangePartitioner)
-                .partitionHandler(partitionHandler(stepWorker))
+                .partitionHandler(partitionHandler)
                 .build();
     }
 
+    /**
+     * With {@code batch.incremental.enabled} every run only partitions the rows added since the last
+     * completed run, see {@link IdWatermark}.
+     */
     @Bean
-    public Job partitionedJob(Step masterStep , JobRepository jobRepository) {
+    public Job partitionedJob(Step masterStep , JobRepository jobRepository,
+                              IdWatermark personWatermark, @Qualifier("advanceWatermarkStep") Step advanceWatermarkStep,
+                              @Value("${batch.incremental.enabled:false}") boolean incremental) {
+        if (incremental) {
+            return new JobBuilder("partitionedJob", jobRepository)
+                    .listener(personWatermark)
+                    .start(masterStep)
+                    .next(advanceWatermarkStep)
+                    .build();
+        }
         return new JobBuilder("partitionedJob" , jobRepository)
                 .start(masterStep)
                 .build();
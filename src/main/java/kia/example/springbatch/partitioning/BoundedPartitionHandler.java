@@ -0,0 +1,136 @@
+package kia.example.springbatch.partitioning;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.StepExecutionSplitter;
+import org.springframework.batch.core.partition.support.TaskExecutorPartitionHandler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the partitions of a manager step on a fixed pool of threads. The partitions that do not
+ * fit wait in the pool's queue for a free worker, instead of all starting at once and then
+ * waiting for a database connection.
+ * <p>
+ * The grid size is resolved for every run by {@link PartitionGridSize}. In micro-partition mode
+ * ({@link #setRangesPerWorker(int)} above 1) the id space is instead cut into {@code rangesPerWorker}
+ * small ranges per worker: the workers keep pulling the next range off the shared queue until it is
+ * empty, so a slow range holds up one worker for a short while instead of the whole step. Every range
+ * is a partition step execution of its own, so a restart skips the ranges that completed.
+ * Ranges are queued in key order.
+ * <p>
+ * Each run reports:
+ * <ul>
+ *     <li>{@code queueWaitMillis} in every partition's context and the {@code batch.partition.queue.wait}
+ *     timer: how long the partition waited for a worker thread,</li>
+ *     <li>{@code partitionConcurrency} and {@code connectionWaitMillis} in the manager step's context:
+ *     the worker count and the time spent waiting for pool connections while the partitions ran
+ *     (from Hikari's {@code hikaricp.connections.acquire} timer, so it includes any other user of
+ *     the pool).</li>
+ * </ul>
+ * A high queue wait with a low connection wait means more workers would help, a high connection
+ * wait means the connection pool is the limit.
+ */
+public class BoundedPartitionHandler extends TaskExecutorPartitionHandler {
+
+    public static final String QUEUE_WAIT_MILLIS = "queueWaitMillis";
+    public static final String PARTITION_CONCURRENCY = "partitionConcurrency";
+    public static final String CONNECTION_WAIT_MILLIS = "connectionWaitMillis";
+
+    private final PartitionGridSize partitionGridSize;
+    private final MeterRegistry meterRegistry;
+    private final int concurrency;
+    private final Timer queueWait;
+    private int rangesPerWorker = 1;
+
+    /**
+     * @param executor pool the partitions run on, its max pool size is the number of partitions running at once
+     */
+    public BoundedPartitionHandler(Step step, ThreadPoolTaskExecutor executor, PartitionGridSize partitionGridSize,
+                                   MeterRegistry meterRegistry) {
+        this.partitionGridSize = partitionGridSize;
+        this.meterRegistry = meterRegistry;
+        this.concurrency = executor.getMaxPoolSize();
+        this.queueWait = Timer.builder("batch.partition.queue.wait")
+                .description("Time a partition waited for a worker thread")
+                .tag("step", step.getName())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        setTaskExecutor(executor);
+        setStep(step);
+    }
+
+    /**
+     * @param rangesPerWorker above 1 switches to micro partitions, that many ranges per worker thread
+     */
+    public void setRangesPerWorker(int rangesPerWorker) {
+        this.rangesPerWorker = Math.max(1, rangesPerWorker);
+    }
+
+    /**
+     * Workers that can run at the same time without queuing on the connection pool: one connection
+     * is left for the manager step, each partition needs {@code connectionsPerPartition}.
+     * A {@code configured} value above 0 wins; without a Hikari pool it falls back to the number of cores.
+     */
+    public static int concurrency(DataSource dataSource, int configured, int connectionsPerPartition) {
+        if (configured > 0) {
+            return configured;
+        }
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                int poolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+                return Math.max(1, (poolSize - 1) / Math.max(1, connectionsPerPartition));
+            }
+        } catch (SQLException ex) {
+            // not a Hikari pool after all
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    public Collection<StepExecution> handle(StepExecutionSplitter splitter, StepExecution managerStepExecution) throws Exception {
+        Timer connectionAcquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+        double waitedBefore = connectionAcquire == null ? 0 : connectionAcquire.totalTime(TimeUnit.MILLISECONDS);
+        try {
+            int gridSize = rangesPerWorker > 1 ? concurrency * rangesPerWorker : partitionGridSize.resolve(managerStepExecution);
+            return doHandle(managerStepExecution, inKeyOrder(splitter.split(managerStepExecution, gridSize)));
+        } finally {
+            managerStepExecution.getExecutionContext().putInt(PARTITION_CONCURRENCY, concurrency);
+            if (connectionAcquire != null) {
+                managerStepExecution.getExecutionContext().putLong(CONNECTION_WAIT_MILLIS,
+                        Math.round(connectionAcquire.totalTime(TimeUnit.MILLISECONDS) - waitedBefore));
+            }
+        }
+    }
+
+    private static Set<StepExecution> inKeyOrder(Set<StepExecution> partitions) {
+        Set<StepExecution> ordered = new TreeSet<>(Comparator
+                .comparingLong((StepExecution partition) -> partition.getExecutionContext().getLong("start", Long.MAX_VALUE))
+                .thenComparing(StepExecution::getStepName));
+        ordered.addAll(partitions);
+        return ordered;
+    }
+
+    @Override
+    protected FutureTask<StepExecution> createTask(Step step, StepExecution stepExecution) {
+        long queued = System.nanoTime();
+        return new FutureTask<>(() -> {
+            long waited = System.nanoTime() - queued;
+            queueWait.record(waited, TimeUnit.NANOSECONDS);
+            stepExecution.getExecutionContext().putLong(QUEUE_WAIT_MILLIS, TimeUnit.NANOSECONDS.toMillis(waited));
+            step.execute(stepExecution);
+            return stepExecution;
+        });
+    }
+}
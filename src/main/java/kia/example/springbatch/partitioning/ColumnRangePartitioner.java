@@ -2,28 +2,91 @@ package kia.example.springbatch.partitioning;
 
 import org.springframework.batch.core.partition.support.Partitioner;
 import org.springframework.batch.item.ExecutionContext;
-import org.springframework.stereotype.Component;
+import org.springframework.jdbc.core.JdbcTemplate;
 
+import javax.sql.DataSource;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-@Component
+
+/**
+ * Splits a numeric key column into {@code gridSize} contiguous ranges holding about the same
+ * number of rows. The boundaries are the real quantiles of the column, computed in one ordered
+ * pass with {@code NTILE}, so gaps and dense id ranges do not make one partition much bigger
+ * than the others.
+ * <p>
+ * Each partition gets {@code start} and {@code end} (inclusive) plus the {@code rowCount} it
+ * held when it was created. The first range starts at the lowest key and every later one right
+ * after the end of the previous one, so keys inserted into a gap still belong to a partition.
+ * A table with fewer rows than {@code gridSize} gives one partition per row, an empty table one
+ * empty partition.
+ * <p>
+ * {@link #setRange} limits the split to a window of keys, e.g. the rows above an incremental job's
+ * watermark; the ranges then cover the whole window, from right after its lower bound to its upper one.
+ */
 public class ColumnRangePartitioner implements Partitioner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+    private final String column;
+    private Long after;
+    private Long to;
+
+    public ColumnRangePartitioner(DataSource dataSource, String table, String column) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.table = table;
+        this.column = column;
+    }
+
+    /**
+     * @param after keys above this one only, {@code null} for no lower bound
+     * @param to    keys up to this one (inclusive) only, {@code null} for no upper bound
+     */
+    public void setRange(Long after, Long to) {
+        this.after = after;
+        this.to = to;
+    }
+
     @Override
     public Map<String, ExecutionContext> partition(int gridSize) {
+        List<Object> bounds = new ArrayList<>();
+        StringBuilder where = new StringBuilder();
+        if (after != null) {
+            where.append(" WHERE ").append(column).append(" > ?");
+            bounds.add(after);
+        }
+        if (to != null) {
+            where.append(where.isEmpty() ? " WHERE " : " AND ").append(column).append(" <= ?");
+            bounds.add(to);
+        }
+        List<long[]> tiles = jdbcTemplate.query(
+                "SELECT MIN(" + column + "), MAX(" + column + "), COUNT(*)"
+                        + " FROM (SELECT " + column + ", NTILE(" + Math.max(1, gridSize) + ") OVER (ORDER BY " + column + ") AS tile"
+                        + " FROM " + table + where + ") t GROUP BY tile ORDER BY tile",
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)},
+                bounds.toArray());
+        long first = after != null ? after + 1 : 1;
         Map<String, ExecutionContext> partitions = new HashMap<>();
-        int min = 1; // Minimum ID (can also be fetched from the database)
-        int max = 10; // Maximum ID (can also be fetched from the database)
-        int range = (max - min) / gridSize;
-        int start = min;
-        int end = start + range;
-        for (int i = 0; i < gridSize; i++) {
-            ExecutionContext context = new ExecutionContext();
-            context.putInt("start", start);
-            context.putInt("end", end);
-            partitions.put("partition" + i, context);
-            start = end + 1;
-            end = (i == gridSize - 2) ? max : end + range;
+        if (tiles.isEmpty()) {
+            partitions.put("partition0", range(first, to != null ? to : first - 1, 0));
+            return partitions;
+        }
+        long start = after != null ? first : tiles.get(0)[0];
+        for (int i = 0; i < tiles.size(); i++) {
+            long[] tile = tiles.get(i);
+            long end = i == tiles.size() - 1 && to != null ? to : tile[1];
+            partitions.put("partition" + i, range(start, end, tile[2]));
+            start = tile[1] + 1;
         }
         return partitions;
     }
+
+    private static ExecutionContext range(long start, long end, long rowCount) {
+        ExecutionContext context = new ExecutionContext();
+        context.putLong("start", start);
+        context.putLong("end", end);
+        context.putLong("rowCount", rowCount);
+        return context;
+    }
 }
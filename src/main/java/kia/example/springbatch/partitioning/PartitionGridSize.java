@@ -0,0 +1,58 @@
+package kia.example.springbatch.partitioning;
+
+import kia.example.springbatch.incremental.IdWatermark;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Decides how many partitions a manager step creates, in this order:
+ * <ol>
+ *     <li>the {@code gridSize} job parameter,</li>
+ *     <li>{@code batch.partition.grid-size} when it is above 0,</li>
+ *     <li>otherwise one partition per {@code batch.partition.min-rows} rows of {@code person},
+ *     at least 1 and at most {@code batch.partition.max-grid-size} (the number of cores when 0).</li>
+ * </ol>
+ * For an incremental run only the rows in the job's {@link IdWatermark} window are counted.
+ */
+@Component
+public class PartitionGridSize {
+
+    public static final String JOB_PARAMETER = "gridSize";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int gridSize;
+    private final long minRows;
+    private final int maxGridSize;
+
+    public PartitionGridSize(DataSource dataSource,
+                             @Value("${batch.partition.grid-size:0}") int gridSize,
+                             @Value("${batch.partition.min-rows:10000}") long minRows,
+                             @Value("${batch.partition.max-grid-size:0}") int maxGridSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.gridSize = gridSize;
+        this.minRows = Math.max(1, minRows);
+        this.maxGridSize = maxGridSize > 0 ? maxGridSize : Runtime.getRuntime().availableProcessors();
+    }
+
+    public int resolve(StepExecution managerStepExecution) {
+        Long requested = managerStepExecution.getJobParameters().getLong(JOB_PARAMETER);
+        if (requested != null && requested > 0) {
+            return requested.intValue();
+        }
+        if (gridSize > 0) {
+            return gridSize;
+        }
+        ExecutionContext job = managerStepExecution.getJobExecution().getExecutionContext();
+        long rows = job.containsKey(IdWatermark.TO)
+                ? jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person WHERE id > ? AND id <= ?", Long.class,
+                        job.getLong(IdWatermark.AFTER), job.getLong(IdWatermark.TO))
+                : jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person", Long.class);
+        long partitions = (rows + minRows - 1) / minRows;
+        return (int) Math.max(1, Math.min(maxGridSize, partitions));
+    }
+}
@@ -0,0 +1,60 @@
+package kia.example.springbatch.partitioning;
+
+import kia.example.springbatch.id.PooledIdAllocator;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Runs a partition's whole transform inside the database as {@code INSERT ... SELECT} over the
+ * partition's inclusive {@code start}/{@code end} range of {@code keyColumn}. No row enters the JVM,
+ * and the range is committed (or rolled back) as a whole in the step's transaction, so a restart
+ * simply runs the failed ranges again.
+ * <p>
+ * The range is inserted in slices of one id block: each slice claims a block of its own from
+ * {@link PooledIdAllocator} and {@code insertSelectSql} numbers the rows from the block's first id.
+ * Its parameters are that first id and the exclusive lower and inclusive upper key of the slice.
+ * <p>
+ * Only for transforms that map every source row to exactly one target row: the inserted row count
+ * is reported as both the read and the write count of the step.
+ */
+public class SqlPushdownTasklet implements Tasklet {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PooledIdAllocator ids;
+    private final String sliceEndSql;
+    private final String insertSelectSql;
+    private final long start;
+    private final long end;
+
+    public SqlPushdownTasklet(JdbcTemplate jdbcTemplate, PooledIdAllocator ids, String table, String keyColumn,
+                              String insertSelectSql, long start, long end) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ids = ids;
+        this.sliceEndSql = "SELECT MAX(" + keyColumn + ") FROM (SELECT " + keyColumn + " FROM " + table
+                + " WHERE " + keyColumn + " > ? AND " + keyColumn + " <= ? ORDER BY " + keyColumn
+                + " FETCH FIRST ? ROWS ONLY) slice";
+        this.insertSelectSql = insertSelectSql;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        long rows = 0;
+        long after = start - 1;
+        Long sliceEnd;
+        while ((sliceEnd = jdbcTemplate.queryForObject(sliceEndSql, Long.class, after, end, ids.blockSize())) != null) {
+            rows += jdbcTemplate.update(insertSelectSql, ids.nextBlock(), after, sliceEnd);
+            after = sliceEnd;
+        }
+        contribution.incrementWriteCount(rows);
+        // the contribution only counts reads one by one, the step execution takes the total
+        StepExecution stepExecution = chunkContext.getStepContext().getStepExecution();
+        stepExecution.setReadCount(stepExecution.getReadCount() + rows);
+        return RepeatStatus.FINISHED;
+    }
+}
@@ -1,83 +1,71 @@
 package kia.example.springbatch.partitioningWithIntegration;
 
-import jakarta.persistence.EntityManagerFactory;
-import kia.example.springbatch.model.Person;
+import kia.example.springbatch.chunk.AdaptiveChunkSizePolicy;
+import kia.example.springbatch.chunk.ChunkSizePolicyFactory;
+import kia.example.springbatch.metrics.ChunkMetricsListener;
+import kia.example.springbatch.model.PersonRow;
 import kia.example.springbatch.model.PersonAfterProcess;
 import kia.example.springbatch.partitioning.ColumnRangePartitioner;
+import kia.example.springbatch.partitioning.PartitionGridSize;
+import kia.example.springbatch.reader.AbstractIdRangeItemReader;
+import kia.example.springbatch.reader.PersonItemReaderFactory;
+import kia.example.springbatch.writer.PersonAfterProcessJdbcWriter;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.partition.PartitionHandler;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.database.JpaItemWriter;
-import org.springframework.batch.item.database.JpaPagingItemReader;
-import org.springframework.batch.item.database.builder.JpaPagingItemReaderBuilder;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.integration.annotation.ServiceActivator;
-import org.springframework.integration.core.MessagingTemplate;
 import org.springframework.messaging.MessageChannel;
-import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.transaction.PlatformTransactionManager;
 
-import java.util.HashMap;
-import java.util.Map;
+import javax.sql.DataSource;
 
 @Configuration
 @EnableBatchProcessing
 public class BatchConfigIntegration {
 
     private final MessageChannel requestsChannel;
-    private final MessageChannel repliesChannel;
-    private final EntityManagerFactory entityManagerFactory;
-    private final ItemProcessor<Person, PersonAfterProcess> personProcessor;
+    private final PersonItemReaderFactory personItemReaderFactory;
+    private final ItemProcessor<PersonRow, PersonAfterProcess> personProcessor;
+    private final PersonAfterProcessJdbcWriter personAfterProcessWriter;
 
-    public BatchConfigIntegration(@Qualifier("requests") MessageChannel requestsChannel, @Qualifier("replies") MessageChannel repliesChannel, EntityManagerFactory entityManagerFactory, ItemProcessor<Person, PersonAfterProcess> personProcessor) {
+    public BatchConfigIntegration(@Qualifier("requests") MessageChannel requestsChannel, PersonItemReaderFactory personItemReaderFactory, ItemProcessor<PersonRow, PersonAfterProcess> personProcessor, PersonAfterProcessJdbcWriter personAfterProcessWriter) {
         this.requestsChannel = requestsChannel;
-        this.repliesChannel = repliesChannel;
-        this.entityManagerFactory = entityManagerFactory;
+        this.personItemReaderFactory = personItemReaderFactory;
         this.personProcessor = personProcessor;
+        this.personAfterProcessWriter = personAfterProcessWriter;
     }
 
     // ** PARTITIONING LOGIC **
 
     @Bean
-    public ColumnRangePartitioner partitionerIntegration() {
-        return new ColumnRangePartitioner();
+    public ColumnRangePartitioner partitionerIntegration(DataSource dataSource) {
+        return new ColumnRangePartitioner(dataSource, "person", "id");
     }
 
     @Bean
-    public PartitionHandler partitionHandlerIntegration() {
-        MessagingTemplate messagingTemplate = new MessagingTemplate();
-        messagingTemplate.setDefaultChannel(requestsChannel);
-
-        return (splitter, stepExecution) -> {
-            var partitions = splitter.split(stepExecution, 3); // Create at least 3 partitions
-
-            for (var partition : partitions) {
-                var start = partition.getExecutionContext().getInt("start");
-                var end = partition.getExecutionContext().getInt("end");
-                var metadata = Map.of("start", start, "end", end);
-
-                messagingTemplate.send(MessageBuilder.withPayload(metadata).build());
-                System.out.println("Master sent metadata to requestsChannel: " + metadata);
-            }
-
-            return partitions;
-        };
+    public PartitionHandler partitionHandlerIntegration(PartitionGridSize partitionGridSize, JobExplorer jobExplorer,
+                                                        @Value("${batch.partition.integration.poll-interval-millis:1000}") long pollIntervalMillis,
+                                                        @Value("${batch.partition.integration.timeout-millis:3600000}") long timeoutMillis) {
+        return new MessagingPartitionHandler(requestsChannel, "workerStepIntegration", partitionGridSize, jobExplorer,
+                pollIntervalMillis, timeoutMillis);
     }
 
     @Bean
-    public Step masterStepIntegration(JobRepository jobRepository, @Qualifier("partitionerIntegration") ColumnRangePartitioner partitioner) {
+    public Step masterStepIntegration(JobRepository jobRepository, @Qualifier("partitionerIntegration") ColumnRangePartitioner partitioner,
+                                      @Qualifier("partitionHandlerIntegration") PartitionHandler partitionHandler) {
         return new StepBuilder("masterStepIntegration", jobRepository)
                 .partitioner("workerStepIntegration", partitioner)
-                .partitionHandler(partitionHandlerIntegration())
+                .partitionHandler(partitionHandler)
                 .build();
     }
 
@@ -85,45 +73,26 @@ public class BatchConfigIntegration {
 
     @Bean
     @StepScope
-    public JpaPagingItemReader<Person> readerPartitionerIntegration(@Value("#{stepExecutionContext['start']}") Integer start, @Value("#{stepExecutionContext['end']}") Integer end) {
-        return new JpaPagingItemReaderBuilder<Person>().name("personItemReader").entityManagerFactory(entityManagerFactory).queryString("SELECT p FROM Person p WHERE p.id BETWEEN :start AND :end").parameterValues(Map.of("start", start, "end", end)).pageSize(3).build();
-    }
-
-    @Bean
-    public JpaItemWriter<PersonAfterProcess> writerPartitionerIntegration() {
-        JpaItemWriter<PersonAfterProcess> writer = new JpaItemWriter<>();
-        writer.setEntityManagerFactory(entityManagerFactory);
-        return writer;
+    public AbstractIdRangeItemReader<PersonRow> readerPartitionerIntegration(@Value("#{stepExecutionContext['start']}") Long start, @Value("#{stepExecutionContext['end']}") Long end) {
+        return personItemReaderFactory.create("personItemReader", start, end);
     }
 
     @Bean
     @Qualifier("workerStepIntegration")
     public Step workerStepIntegration(JobRepository jobRepository,
                                       PlatformTransactionManager transactionManager,
-                                      @Qualifier("readerPartitionerIntegration") JpaPagingItemReader<Person> readerPartitioner) {
-        return new StepBuilder("workerStepIntegration", jobRepository)
-                .<Person, PersonAfterProcess>chunk(2, transactionManager)
+                                      @Qualifier("readerPartitionerIntegration") AbstractIdRangeItemReader<PersonRow> readerPartitioner,
+                                      ChunkSizePolicyFactory chunkSizePolicyFactory, ChunkMetricsListener chunkMetricsListener) {
+        AdaptiveChunkSizePolicy chunkSizePolicy = chunkSizePolicyFactory.create(2);
+        return chunkMetricsListener.register(new StepBuilder("workerStepIntegration", jobRepository)
+                .<PersonRow, PersonAfterProcess>chunk(chunkSizePolicy, transactionManager)
                 .reader(readerPartitioner)
                 .processor(personProcessor).
-                writer(writerPartitionerIntegration())
+                writer(personAfterProcessWriter)
+                .listener(chunkSizePolicy))
                 .build();
     }
 
-    @ServiceActivator(inputChannel = "requests")
-    public void workerServiceActivator(String partitionData) {
-        System.out.println("Worker received partition data: " + partitionData);
-
-        // Simulate reading data and sending processed data to repliesChannel
-        String processedData = "Processed partition: " + partitionData;
-        repliesChannel.send(MessageBuilder.withPayload(processedData).build());
-        System.out.println("Worker sent processed data to repliesChannel: " + processedData);
-    }
-    @ServiceActivator(inputChannel = "replies")
-    public void handleReplies(String processedData) {
-        System.out.println("Master received processed data from repliesChannel: " + processedData);
-        // You can process the data further here if needed
-    }
-
     // ** JOB CONFIGURATION **
 
     @Bean
@@ -1,30 +1,90 @@
 package kia.example.springbatch.partitioningWithIntegration;
 
+import kia.example.springbatch.partitioning.BoundedPartitionHandler;
+import kia.example.springbatch.reader.PersonItemReaderFactory;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.integration.partition.BeanFactoryStepLocator;
+import org.springframework.batch.integration.partition.StepExecutionRequestHandler;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.integration.annotation.ServiceActivator;
 import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.ExecutorChannel;
+import org.springframework.integration.dsl.IntegrationFlow;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Channels of {@code partitionedJobIntegration}: partition requests are handed to a pool of
+ * {@code batch.partition.integration.concurrency} workers, and their replies are aggregated per
+ * split before they go back to {@link MessagingPartitionHandler}.
+ */
 @Configuration
 public class IntegrationConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor integrationWorkerExecutor(DataSource dataSource, PersonItemReaderFactory personItemReaderFactory,
+                                                            @Value("${batch.partition.integration.concurrency:0}") int concurrency,
+                                                            @Value("${batch.partition.integration.queue-capacity:100}") int queueCapacity) {
+        int workers = BoundedPartitionHandler.concurrency(dataSource, concurrency,
+                1 + personItemReaderFactory.extraConnectionsPerReader());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        // a full queue makes the manager run the partition itself, which holds back further requests
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("integrationWorker-");
+        return executor;
+    }
+
     @Bean
-    public MessageChannel requests() {
-        return new DirectChannel(); // Channel for sending partition data
+    public MessageChannel requests(@Qualifier("integrationWorkerExecutor") ThreadPoolTaskExecutor integrationWorkerExecutor) {
+        return new ExecutorChannel(integrationWorkerExecutor); // partition requests, one worker thread each
     }
+
     @Bean
     public MessageChannel replies() {
-        return new DirectChannel(); // Channel for receiving results
+        return new DirectChannel(); // finished partitions, on the worker's thread
     }
-    @ServiceActivator(inputChannel = "requestsChannel")
-    public void handleRequests(String partitionData) {
-        System.out.println("Worker received partition data: " + partitionData);
 
-        // Simulate processing and send results back to repliesChannel
-        System.out.println("Processing partition: " + partitionData);
+    @Bean
+    public StepExecutionRequestHandler stepExecutionRequestHandler(JobExplorer jobExplorer, BeanFactoryStepLocator stepLocator) {
+        StepExecutionRequestHandler handler = new StepExecutionRequestHandler();
+        handler.setJobExplorer(jobExplorer);
+        handler.setStepLocator(stepLocator);
+        return handler;
     }
 
-    @ServiceActivator(inputChannel = "repliesChannel")
-    public void handleReplies(String reply) {
-        System.out.println("Master received reply: " + reply);
+    @Bean
+    public BeanFactoryStepLocator stepLocator() {
+        return new BeanFactoryStepLocator();
+    }
+
+    @Bean
+    public IntegrationFlow integrationWorkerFlow(StepExecutionRequestHandler stepExecutionRequestHandler) {
+        return IntegrationFlow.from("requests")
+                .handle(stepExecutionRequestHandler, "handle")
+                .channel("replies")
+                .get();
+    }
+
+    /**
+     * Releases a split once all of its partitions replied, to the reply channel of the request.
+     * A split the manager gave up on is dropped after the same timeout.
+     */
+    @Bean
+    public IntegrationFlow integrationRepliesFlow(@Value("${batch.partition.integration.timeout-millis:3600000}") long timeoutMillis) {
+        return IntegrationFlow.from("replies")
+                .aggregate(aggregator -> aggregator
+                        .groupTimeout(timeoutMillis)
+                        .sendPartialResultOnExpiry(false)
+                        .expireGroupsUponCompletion(true)
+                        .expireGroupsUponTimeout(true))
+                .get();
     }
 }
@@ -0,0 +1,105 @@
+package kia.example.springbatch.partitioningWithIntegration;
+
+import kia.example.springbatch.partitioning.PartitionGridSize;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.partition.StepExecutionSplitter;
+import org.springframework.batch.integration.partition.StepExecutionRequest;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.ErrorMessage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Partitioning over in-JVM Spring Integration channels: every partition is sent to {@code requests} as a
+ * {@link StepExecutionRequest}, correlated by the manager step execution and numbered within the split.
+ * The workers' finished step executions are aggregated back into one message on a reply channel private
+ * to this call, and returned, so the manager step's status and counts are the workers' results.
+ * <p>
+ * A worker that fails without replying (its step could not be found or loaded, the reply could not be
+ * aggregated) sends the error to that same channel, and the manager step fails at once with its cause.
+ * Every {@code pollIntervalMillis} without a reply the partitions are also looked up in the job
+ * repository, and once none of them is running any more their stored results are returned, so a lost
+ * reply does not hold the step until the timeout. If partitions are still running after
+ * {@code timeoutMillis} the manager step fails with a {@link TimeoutException}; a restart runs the
+ * partitions that did not complete again.
+ */
+public class MessagingPartitionHandler implements PartitionHandler {
+
+    private final MessageChannel requests;
+    private final String stepName;
+    private final PartitionGridSize partitionGridSize;
+    private final JobExplorer jobExplorer;
+    private final long pollIntervalMillis;
+    private final long timeoutMillis;
+
+    /**
+     * @param stepName bean name of the step the workers run each partition with
+     */
+    public MessagingPartitionHandler(MessageChannel requests, String stepName, PartitionGridSize partitionGridSize,
+                                     JobExplorer jobExplorer, long pollIntervalMillis, long timeoutMillis) {
+        this.requests = requests;
+        this.stepName = stepName;
+        this.partitionGridSize = partitionGridSize;
+        this.jobExplorer = jobExplorer;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Collection<StepExecution> handle(StepExecutionSplitter splitter, StepExecution managerStepExecution) throws Exception {
+        Set<StepExecution> partitions = splitter.split(managerStepExecution, partitionGridSize.resolve(managerStepExecution));
+        if (partitions.isEmpty()) {
+            return partitions;
+        }
+        QueueChannel replies = new QueueChannel();
+        String correlationId = managerStepExecution.getStepName() + ":" + managerStepExecution.getId();
+        int sequence = 0;
+        for (StepExecution partition : partitions) {
+            requests.send(MessageBuilder
+                    .withPayload(new StepExecutionRequest(stepName, partition.getJobExecutionId(), partition.getId()))
+                    .setCorrelationId(correlationId)
+                    .setSequenceNumber(++sequence)
+                    .setSequenceSize(partitions.size())
+                    .setReplyChannel(replies)
+                    .setErrorChannel(replies)
+                    .build());
+        }
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (true) {
+            Message<?> results = replies.receive(Math.max(1, Math.min(pollIntervalMillis, deadline - System.currentTimeMillis())));
+            if (results instanceof ErrorMessage error) {
+                throw new IllegalStateException("a partition of " + correlationId + " failed without replying",
+                        error.getPayload());
+            }
+            if (results != null) {
+                return (Collection<StepExecution>) results.getPayload();
+            }
+            List<StepExecution> stored = new ArrayList<>(partitions.size());
+            long running = 0;
+            for (StepExecution partition : partitions) {
+                StepExecution result = jobExplorer.getStepExecution(partition.getJobExecutionId(), partition.getId());
+                stored.add(result);
+                if (result.getStatus().isRunning()) {
+                    running++;
+                }
+            }
+            if (running == 0) {
+                return stored;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                throw new TimeoutException(running + " of " + partitions.size() + " partitions of " + correlationId
+                        + " still running after " + timeoutMillis + " ms");
+            }
+        }
+    }
+}
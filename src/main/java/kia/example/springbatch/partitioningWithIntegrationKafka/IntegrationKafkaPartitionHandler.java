@@ -1,39 +1,83 @@
 package kia.example.springbatch.partitioningWithIntegrationKafka;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.hibernate.sql.exec.spi.ExecutionContext;
+import kia.example.springbatch.partitioning.PartitionGridSize;
+import kia.example.springbatch.partitioningWithKafka.PartitionRequest;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.partition.PartitionHandler;
 import org.springframework.batch.core.partition.StepExecutionSplitter;
+import org.springframework.integration.kafka.support.KafkaIntegrationHeaders;
+import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
-import org.springframework.messaging.support.GenericMessage;
+import org.springframework.messaging.SubscribableChannel;
 import org.springframework.messaging.support.MessageBuilder;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Sends every partition through {@code messageChannel} to the Kafka outbound adapter, which sends
+ * asynchronously so the producer can batch them. The adapter hands each send's future to
+ * {@code sendFutures}, under the partition's id as future token, and the manager step only completes
+ * once the broker acknowledged every request; one that was not fails the step.
+ */
 public class IntegrationKafkaPartitionHandler implements PartitionHandler {
 
     private final MessageChannel messageChannel;
+    private final PartitionGridSize partitionGridSize;
+    /** send futures by token, only held between the adapter publishing one and {@link #handle} taking it */
+    private final Map<Object, CompletableFuture<?>> sent = new ConcurrentHashMap<>();
 
-    public IntegrationKafkaPartitionHandler(MessageChannel messageChannel) {
+    public IntegrationKafkaPartitionHandler(MessageChannel messageChannel, SubscribableChannel sendFutures,
+                                            PartitionGridSize partitionGridSize) {
         this.messageChannel = messageChannel;
+        this.partitionGridSize = partitionGridSize;
+        sendFutures.subscribe(message -> sent.put(message.getHeaders().get(KafkaIntegrationHeaders.FUTURE_TOKEN),
+                (CompletableFuture<?>) message.getPayload()));
     }
 
     @Override
     public Collection<StepExecution> handle(StepExecutionSplitter splitter, StepExecution stepExecution) throws Exception {
-        var gridSize = 3 ;
+        var gridSize = partitionGridSize.resolve(stepExecution);
         Set<StepExecution> partitions = splitter.split(stepExecution, gridSize);
 
+        List<CompletableFuture<?>> sends = new ArrayList<>();
         for ( StepExecution partition : partitions ) {
-            Message<String> message = MessageBuilder
-                    .withPayload(partition.getExecutionContext().toString())
+            Message<PartitionRequest> message = MessageBuilder
+                    .withPayload(PartitionRequest.of(partition, partition.getStepName()))
+                    .setHeader(KafkaHeaders.KEY, String.valueOf(partition.getId()))
+                    .setHeader(KafkaIntegrationHeaders.FUTURE_TOKEN, partition.getId())
                     .build();
+            // the channels are direct, so the adapter has published the future when send returns
             messageChannel.send(message);
+            CompletableFuture<?> send = sent.remove(partition.getId());
+            if (send == null) {
+                throw new IllegalStateException("No send future for partition " + partition.getStepName()
+                        + ", the outbound adapter needs a futures channel");
+            }
+            sends.add(send);
         }
+        awaitSent(sends);
         return Collections.emptyList();
     }
+
+    /**
+     * Waits until the broker acknowledged every request, at most the producer's {@code delivery.timeout.ms}.
+     */
+    private static void awaitSent(List<CompletableFuture<?>> sends) {
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            long failed = sends.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+            throw new IllegalStateException(failed + " of " + sends.size() + " partition requests were not acknowledged",
+                    e.getCause());
+        }
+    }
 }
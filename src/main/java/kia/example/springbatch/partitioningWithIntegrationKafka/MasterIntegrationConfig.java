@@ -1,5 +1,6 @@
 package kia.example.springbatch.partitioningWithIntegrationKafka;
 
+import kia.example.springbatch.partitioningWithKafka.PartitionRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.integration.channel.DirectChannel;
@@ -7,6 +8,7 @@ import org.springframework.integration.dsl.IntegrationFlow;
 import org.springframework.integration.kafka.dsl.Kafka;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
 
 @Configuration
 public class MasterIntegrationConfig {
@@ -17,11 +19,18 @@ public class MasterIntegrationConfig {
         return new DirectChannel();
     }
 
+    /** futures of the adapter's sends, see {@link IntegrationKafkaPartitionHandler} */
     @Bean
-    public IntegrationFlow toKafkaFlow(KafkaTemplate kafkaTemplate) {
+    public SubscribableChannel kafkaSendFutures() {
+        return new DirectChannel();
+    }
+
+    @Bean
+    public IntegrationFlow toKafkaFlow(KafkaTemplate<String, PartitionRequest> partitionRequestKafkaTemplate) {
         return IntegrationFlow.from(toKafka())
-                .handle(Kafka.outboundChannelAdapter(kafkaTemplate)
-                        .topic("batch-partitions-kafka"))
+                .handle(Kafka.outboundChannelAdapter(partitionRequestKafkaTemplate)
+                        .topic("batch-partitions-kafka")
+                        .futuresChannel(kafkaSendFutures()))
                 .get();
     }
 }
@@ -1,9 +1,9 @@
 package kia.example.springbatch.partitioningWithIntegrationKafka;
 
-import jakarta.persistence.EntityManagerFactory;
 import kia.example.springbatch.model.Person;
 import kia.example.springbatch.model.PersonAfterProcess;
 import kia.example.springbatch.partitioning.ColumnRangePartitioner;
+import kia.example.springbatch.partitioning.PartitionGridSize;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.job.builder.JobBuilder;
@@ -16,6 +16,7 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
 import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.HashMap;
@@ -25,21 +26,19 @@ import java.util.Map;
 @Configuration
 public class MasterIntegrationKafkaBatchConfig {
 
-    private final EntityManagerFactory entityManagerFactory;
-
     private final MessageChannel toKafka;
+    private final SubscribableChannel kafkaSendFutures;
 
-    public MasterIntegrationKafkaBatchConfig(EntityManagerFactory entityManagerFactory,
-                                             MessageChannel toKafka) {
-        this.entityManagerFactory = entityManagerFactory;
+    public MasterIntegrationKafkaBatchConfig(MessageChannel toKafka, SubscribableChannel kafkaSendFutures) {
         this.toKafka = toKafka;
+        this.kafkaSendFutures = kafkaSendFutures;
     }
 
     @Bean
-    public Step masterIntegrationKafkaStep(JobRepository jobRepository) {
+    public Step masterIntegrationKafkaStep(JobRepository jobRepository, PartitionGridSize partitionGridSize) {
         return new StepBuilder("masterIntegrationKafkaStep", jobRepository)
                 .partitioner("workerIntegrationKafkaStep", partitionerStepIntegrationKafka())
-                .partitionHandler(new IntegrationKafkaPartitionHandler(toKafka))
+                .partitionHandler(new IntegrationKafkaPartitionHandler(toKafka, kafkaSendFutures, partitionGridSize))
                 .build();
     }
 
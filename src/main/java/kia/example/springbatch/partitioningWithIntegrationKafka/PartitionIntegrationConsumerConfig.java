@@ -1,43 +1,193 @@
 package kia.example.springbatch.partitioningWithIntegrationKafka;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import kia.example.springbatch.partitioningWithKafka.PartitionRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.JobParametersBuilder;
-import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.integration.annotation.ServiceActivator;
+import org.springframework.integration.core.Pausable;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.Message;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
-import java.util.Set;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
-
+/**
+ * Runs the partition jobs received from Kafka on a pool of {@code batch.worker.kafka.jobs} threads,
+ * so the listener threads only hand them over and keep polling.
+ * <p>
+ * Once more jobs are in flight than the pool has threads the Kafka adapter is paused (the consumers
+ * keep polling without fetching, so they stay in the group) and it is resumed when a thread is free
+ * again. After the pause every consumer delivers at most the one batch it already fetched, which is
+ * what the pool's queue is sized for.
+ * <p>
+ * A batch is acknowledged when all its jobs have finished, whether they completed or failed (a failed
+ * execution stays in the job repository and can be restarted), and never before the batches received
+ * earlier on the same consumer. A job that could not be launched at all (the pool rejected it, the job
+ * repository was unavailable) is retried, first after {@code batch.worker.kafka.launch-retry-millis}
+ * and then with the delay doubling up to a minute, so no offset is committed past a partition that
+ * never ran. Until it is launched its batch, and every later one of the consumer, stays unacknowledged
+ * and the adapter stays paused if the pool is full.
+ */
 @Component
-public class PartitionIntegrationConsumerConfig {
+public class PartitionIntegrationConsumerConfig implements DisposableBean {
 
-    private final JobLauncher jobLauncher;
+    static final String ADAPTER = "fromKafkaAdapter";
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionIntegrationConsumerConfig.class);
+    private static final long MAX_RETRY_MILLIS = 60_000;
 
+    private final JobLauncher jobLauncher;
     private final Job workerChunkPartitionedJob;
+    private final ObjectProvider<Pausable> adapter;
+    private final int jobs;
+    private final long retryMillis;
+    private final ThreadPoolTaskExecutor executor;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private boolean paused;
 
-    public PartitionIntegrationConsumerConfig(JobLauncher jobLauncher, Job workerChunkPartitionedJob) {
+    /** per listener thread: completes once every batch it handed over so far is acknowledged */
+    private final ThreadLocal<CompletableFuture<Void>> acknowledged =
+            ThreadLocal.withInitial(() -> CompletableFuture.completedFuture(null));
+
+    public PartitionIntegrationConsumerConfig(JobLauncher jobLauncher, Job workerChunkPartitionedJob,
+                                              @Qualifier(ADAPTER) ObjectProvider<Pausable> adapter,
+                                              @Value("${batch.worker.kafka.jobs:4}") int jobs,
+                                              @Value("${batch.worker.kafka.concurrency:1}") int concurrency,
+                                              @Value("${batch.worker.kafka.max-poll-records:4}") int maxPollRecords,
+                                              @Value("${batch.worker.kafka.launch-retry-millis:1000}") long retryMillis) {
         this.jobLauncher = jobLauncher;
         this.workerChunkPartitionedJob = workerChunkPartitionedJob;
+        this.adapter = adapter;
+        this.jobs = Math.max(1, jobs);
+        this.retryMillis = Math.max(1, retryMillis);
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(this.jobs);
+        executor.setMaxPoolSize(this.jobs);
+        executor.setQueueCapacity(Math.max(1, concurrency) * Math.max(1, maxPollRecords));
+        executor.setThreadNamePrefix("workerJob-");
+        executor.initialize();
     }
 
     @ServiceActivator(inputChannel = "fromKafka")
-    public void handlePartition(Message<String> message) throws Exception {
-        String partitionData = message.getPayload();
+    public void handlePartitions(Message<List<PartitionRequest>> message) {
+        Acknowledgment acknowledgment = message.getHeaders().get(KafkaHeaders.ACKNOWLEDGMENT, Acknowledgment.class);
+        CompletableFuture<?>[] batch = message.getPayload().stream()
+                .filter(Objects::nonNull) // records that did not decode, already logged by the deserializer
+                .map(this::submit)
+                .toArray(CompletableFuture[]::new);
+
+        CompletableFuture<Void> done = acknowledged.get()
+                .thenCombine(CompletableFuture.allOf(batch), (previous, current) -> current)
+                .thenRun(() -> {
+                    if (acknowledgment != null) {
+                        acknowledgment.acknowledge();
+                    }
+                })
+                .exceptionally(ex -> {
+                    // shut down before a job was launched, or the commit failed (e.g. the partition was
+                    // revoked): nothing was committed past the batch, so it is delivered again
+                    log.warn("Partition batch not acknowledged, it will be redelivered", ex);
+                    return null;
+                });
+        acknowledged.set(done);
+    }
 
-        ObjectMapper objectMapper = new ObjectMapper();
+    private CompletableFuture<Void> submit(PartitionRequest request) {
+        inFlight.incrementAndGet();
+        pauseOrResume();
+        return launch(request, 1)
+                .whenComplete((result, ex) -> {
+                    inFlight.decrementAndGet();
+                    pauseOrResume();
+                });
+    }
 
+    /**
+     * Completes once the job has run; a failed launch is retried, never given up, since acknowledging
+     * the batch without it would lose the partition.
+     */
+    private CompletableFuture<Void> launch(PartitionRequest request, int attempt) {
+        CompletableFuture<Void> launched;
+        try {
+            launched = CompletableFuture.runAsync(() -> runJob(request), executor);
+        } catch (TaskRejectedException ex) {
+            launched = CompletableFuture.failedFuture(ex);
+        }
+        return launched.handle((result, ex) -> ex == null
+                        ? CompletableFuture.<Void>completedFuture(null)
+                        : retryLater(request, attempt, ex))
+                .thenCompose(next -> next);
+    }
+
+    private CompletableFuture<Void> retryLater(PartitionRequest request, int attempt, Throwable failure) {
+        if (executor.getThreadPoolExecutor().isShutdown()) {
+            // shutting down: the batch stays unacknowledged and is delivered again after the restart
+            return CompletableFuture.failedFuture(failure);
+        }
+        long delay = Math.min(MAX_RETRY_MILLIS, retryMillis << Math.min(attempt - 1, 16));
+        log.warn("Launching the partition job for {} failed (attempt {}), retrying in {} ms",
+                request.stepName(), attempt, delay, failure);
+        return CompletableFuture.supplyAsync(() -> launch(request, attempt + 1),
+                        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                .thenCompose(next -> next);
+    }
+
+    /**
+     * The partition's context entries become job parameters of the same type, e.g. {@code partitionNumber}.
+     */
+    private void runJob(PartitionRequest request) {
         JobParametersBuilder builder = new JobParametersBuilder();
 
-        builder.addString("meta", partitionData);
+        request.context().forEach((key, value) -> {
+            switch (value) {
+                case Long number -> builder.addLong(key, number);
+                case Integer number -> builder.addLong(key, number.longValue());
+                case Double number -> builder.addDouble(key, number);
+                case Boolean flag -> builder.addJobParameter(key, flag, Boolean.class);
+                default -> builder.addString(key, value.toString());
+            }
+        });
+        builder.addString("partition", request.stepName());
+        builder.addLong("stepExecutionId", request.stepExecutionId());
 
         builder.addLong("run.id", System.currentTimeMillis());
 
-        jobLauncher.run(workerChunkPartitionedJob, builder.toJobParameters());
+        try {
+            jobLauncher.run(workerChunkPartitionedJob, builder.toJobParameters());
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to launch partition job for " + request.stepName(), e);
+        }
+    }
+
+    private synchronized void pauseOrResume() {
+        boolean full = inFlight.get() > jobs;
+        if (full != paused) {
+            paused = full;
+            if (full) {
+                adapter.getObject().pause();
+            } else {
+                adapter.getObject().resume();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
     }
 }
@@ -1,13 +1,20 @@
 package kia.example.springbatch.partitioningWithIntegrationKafka;
 
+import kia.example.springbatch.partitioningWithKafka.PartitionRequest;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.integration.channel.DirectChannel;
 import org.springframework.integration.dsl.IntegrationFlow;
 import org.springframework.integration.kafka.dsl.Kafka;
+import org.springframework.integration.kafka.inbound.KafkaMessageDrivenChannelAdapter.ListenerMode;
 import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.messaging.MessageChannel;
 
+import java.util.Properties;
+
 @Configuration
 public class WorkerIntegrationConfig {
 
@@ -16,10 +23,25 @@ public class WorkerIntegrationConfig {
         return new DirectChannel();
     }
 
+    /**
+     * Polls the partition topic on {@code batch.worker.kafka.concurrency} consumers (one per topic
+     * partition is the useful maximum) and hands over up to {@code max-poll-records} partition messages
+     * at a time. Offsets are only committed when {@link PartitionIntegrationConsumerConfig} acknowledges
+     * a batch, i.e. after its partition jobs finished.
+     */
     @Bean
-    public IntegrationFlow fromKafkaFlow(ConsumerFactory<String, String> consumerFactory) {
+    public IntegrationFlow fromKafkaFlow(ConsumerFactory<String, PartitionRequest> partitionRequestConsumerFactory,
+                                         @Value("${batch.worker.kafka.concurrency:1}") int concurrency,
+                                         @Value("${batch.worker.kafka.max-poll-records:4}") int maxPollRecords) {
+        ContainerProperties containerProperties = new ContainerProperties("batch-partitions-kafka");
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        Properties consumerProperties = new Properties();
+        consumerProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxPollRecords));
+        containerProperties.setKafkaConsumerProperties(consumerProperties);
         return IntegrationFlow
-                .from(Kafka.messageDrivenChannelAdapter(consumerFactory, "batch-partitions-kafka"))
+                .from(Kafka.messageDrivenChannelAdapter(partitionRequestConsumerFactory, containerProperties, ListenerMode.batch)
+                        .configureListenerContainer(container -> container.concurrency(concurrency))
+                        .id(PartitionIntegrationConsumerConfig.ADAPTER))
                 .channel(fromKafka())
                 .get();
     }
@@ -1,6 +1,10 @@
 package kia.example.springbatch.partitioningWithIntegrationKafka;
 
 
+import kia.example.springbatch.chunk.AdaptiveChunkSizePolicy;
+import kia.example.springbatch.chunk.ChunkSizePolicyFactory;
+import kia.example.springbatch.metrics.ChunkMetricsListener;
+import kia.example.springbatch.repository.CoalescingJobRepository;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.job.builder.JobBuilder;
@@ -9,6 +13,7 @@ import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.transaction.PlatformTransactionManager;
@@ -18,29 +23,45 @@ public class WorkerPartitionBatchConfig {
     private final ItemReader workerPartitionItemReader;
     private final ItemProcessor workerPartitionItemProcessor;
     private final ItemWriter workerPartitionItemWriter;
+    /**
+     * One worker job runs per partition message, so its chunk-level metadata writes can outweigh
+     * the work itself. In {@code coalescing} mode they are batched, see {@link CoalescingJobRepository}
+     * for what that gives up. Not a bean, so everything else keeps using the JDBC repository; the
+     * worker step and job share this one instance.
+     */
+    private final JobRepository workerJobRepository;
 
     public WorkerPartitionBatchConfig(ItemReader workerPartitionItemReader,
                                       ItemProcessor workerPartitionItemProcessor,
-                                      ItemWriter workerPartitionItemWriter) {
+                                      ItemWriter workerPartitionItemWriter,
+                                      JobRepository jobRepository,
+                                      @Value("${batch.worker.repository.mode:jdbc}") String repositoryMode,
+                                      @Value("${batch.worker.repository.flush-interval-millis:5000}") long flushIntervalMillis) {
         this.workerPartitionItemReader = workerPartitionItemReader;
         this.workerPartitionItemProcessor = workerPartitionItemProcessor;
         this.workerPartitionItemWriter = workerPartitionItemWriter;
+        this.workerJobRepository = "coalescing".equalsIgnoreCase(repositoryMode)
+                ? new CoalescingJobRepository(jobRepository, flushIntervalMillis)
+                : jobRepository;
     }
 
     @Bean
-    public Step workerChunkPartitionedStep(JobRepository jobRepository,
-                                           PlatformTransactionManager transactionManager) {
-        return new StepBuilder("workerStepIntegration", jobRepository)
-                .<String, String>chunk(2, transactionManager)
+    public Step workerChunkPartitionedStep(PlatformTransactionManager transactionManager,
+                                           ChunkSizePolicyFactory chunkSizePolicyFactory,
+                                           ChunkMetricsListener chunkMetricsListener) {
+        AdaptiveChunkSizePolicy chunkSizePolicy = chunkSizePolicyFactory.create(2);
+        return chunkMetricsListener.register(new StepBuilder("workerStepIntegration", workerJobRepository)
+                .<String, String>chunk(chunkSizePolicy, transactionManager)
                 .reader(workerPartitionItemReader)
                 .processor(workerPartitionItemProcessor)
                 .writer(workerPartitionItemWriter)
+                .listener(chunkSizePolicy))
                 .build();
     }
 
     @Bean
-    public Job workerChunkPartitionedJob(Step workerChunkPartitionedStep, JobRepository jobRepository) {
-        return new JobBuilder("workerChunkPartitionedJob", jobRepository)
+    public Job workerChunkPartitionedJob(Step workerChunkPartitionedStep) {
+        return new JobBuilder("workerChunkPartitionedJob", workerJobRepository)
                 .start(workerChunkPartitionedStep)
                 .build();
     }
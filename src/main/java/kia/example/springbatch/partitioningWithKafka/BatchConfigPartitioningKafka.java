@@ -1,53 +1,92 @@
 package kia.example.springbatch.partitioningWithKafka;
 
-import jakarta.persistence.EntityManagerFactory;
+import kia.example.springbatch.chunk.AdaptiveChunkSizePolicy;
+import kia.example.springbatch.chunk.ChunkSizePolicyFactory;
+import kia.example.springbatch.metrics.ChunkMetricsListener;
+import kia.example.springbatch.model.PersonAfterProcess;
+import kia.example.springbatch.model.PersonRow;
+import kia.example.springbatch.partitioning.ColumnRangePartitioner;
+import kia.example.springbatch.partitioning.PartitionGridSize;
+import kia.example.springbatch.reader.AbstractIdRangeItemReader;
+import kia.example.springbatch.reader.PersonItemReaderFactory;
+import kia.example.springbatch.writer.PersonAfterProcessJdbcWriter;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.job.builder.JobBuilder;
-import org.springframework.batch.core.partition.support.Partitioner;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
-import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
 
-import java.util.HashMap;
-import java.util.Map;
 @Configuration
 public class BatchConfigPartitioningKafka {
 
-    private final EntityManagerFactory entityManagerFactory;
-
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final KafkaTemplate<String, PartitionRequest> kafkaTemplate;
+    private final PersonItemReaderFactory personItemReaderFactory;
+    private final ItemProcessor<PersonRow, PersonAfterProcess> personProcessor;
+    private final PersonAfterProcessJdbcWriter personAfterProcessWriter;
 
-    public BatchConfigPartitioningKafka(EntityManagerFactory entityManagerFactory,
-                                        KafkaTemplate<String, String> kafkaTemplate) {
-        this.entityManagerFactory = entityManagerFactory;
+    public BatchConfigPartitioningKafka(KafkaTemplate<String, PartitionRequest> kafkaTemplate,
+                                        PersonItemReaderFactory personItemReaderFactory,
+                                        ItemProcessor<PersonRow, PersonAfterProcess> personProcessor,
+                                        PersonAfterProcessJdbcWriter personAfterProcessWriter) {
         this.kafkaTemplate = kafkaTemplate;
+        this.personItemReaderFactory = personItemReaderFactory;
+        this.personProcessor = personProcessor;
+        this.personAfterProcessWriter = personAfterProcessWriter;
     }
 
 
 
     @Bean
-    public Step masterStepConfigPartitioningKafka(JobRepository jobRepository) {
+    public Step masterStepConfigPartitioningKafka(JobRepository jobRepository, PartitionGridSize partitionGridSize,
+                                                  JobExplorer jobExplorer,
+                                                  @Qualifier("partitionerWithKafka") ColumnRangePartitioner partitioner,
+                                                  @Value("${batch.partition.remote.poll-interval-millis:1000}") long pollIntervalMillis,
+                                                  @Value("${batch.partition.remote.timeout-millis:3600000}") long timeoutMillis) {
         return new StepBuilder("masterStepConfigPartitioningKafka" , jobRepository)
-                .partitioner("workerStepConfigPartitioningKafka", partitionerWithKafka())
-                .partitionHandler(new KafkaPartitionHandler(kafkaTemplate, "batch-partitions"))
+                .partitioner("workerStepConfigPartitioningKafka", partitioner)
+                .partitionHandler(new KafkaPartitionHandler(kafkaTemplate, "batch-partitions", partitionGridSize,
+                        jobExplorer, "workerStepConfigPartitioningKafka", pollIntervalMillis, timeoutMillis))
                 .build();
     }
 
     @Bean
-    public Partitioner partitionerWithKafka() {
-        return (gridSize) -> {
-            Map<String, ExecutionContext> map = new HashMap<>();
-            for (int i = 0; i < gridSize; i++) {
-                ExecutionContext context = new ExecutionContext();
-                context.putInt("partitionNumber", i);
-                map.put("partition" + i, context);
-            }
-            return map;
-        };
+    public ColumnRangePartitioner partitionerWithKafka(DataSource dataSource) {
+        return new ColumnRangePartitioner(dataSource, "person", "id");
+    }
+
+    // ** WORKER, run by PartitionWorker for every partition request **
+
+    @Bean
+    @StepScope
+    public AbstractIdRangeItemReader<PersonRow> readerPartitionerKafka(@Value("#{stepExecutionContext['start']}") Long start,
+                                                                       @Value("#{stepExecutionContext['end']}") Long end) {
+        return personItemReaderFactory.create("personItemReader", start, end);
+    }
+
+    @Bean
+    public Step workerStepConfigPartitioningKafka(JobRepository jobRepository,
+                                                  PlatformTransactionManager transactionManager,
+                                                  @Qualifier("readerPartitionerKafka") AbstractIdRangeItemReader<PersonRow> readerPartitioner,
+                                                  ChunkSizePolicyFactory chunkSizePolicyFactory, ChunkMetricsListener chunkMetricsListener) {
+        AdaptiveChunkSizePolicy chunkSizePolicy = chunkSizePolicyFactory.create(2);
+        return chunkMetricsListener.register(new StepBuilder("workerStepConfigPartitioningKafka", jobRepository)
+                .<PersonRow, PersonAfterProcess>chunk(chunkSizePolicy, transactionManager)
+                .reader(readerPartitioner)
+                .processor(personProcessor)
+                .writer(personAfterProcessWriter)
+                .listener(chunkSizePolicy))
+                .build();
     }
 
     @Bean
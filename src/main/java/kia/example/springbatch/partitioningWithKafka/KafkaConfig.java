@@ -5,19 +5,30 @@ import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Properties;
 
 @Configuration
 public class KafkaConfig {
+
+    private final String bootstrapServers;
+
+    public KafkaConfig(@Value("${spring.kafka.bootstrap-servers:localhost:9092}") String bootstrapServers) {
+        this.bootstrapServers = bootstrapServers;
+    }
+
     @Bean
     public ProducerFactory<String, String> producerFactory() {
         Map<String, Object> config = new HashMap<>();
-        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         return new DefaultKafkaProducerFactory<>(config);
@@ -31,10 +42,69 @@ public class KafkaConfig {
     @Bean
     public ConsumerFactory<String, String> consumerFactory() {
         Map<String, Object> config = new HashMap<>();
-        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         config.put(ConsumerConfig.GROUP_ID_CONFIG, "batch-workers");
         config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         return new DefaultKafkaConsumerFactory<>(config);
     }
+
+    // ** PARTITION REQUESTS, binary encoded by PartitionRequestCodec **
+
+    /**
+     * Tuned for dispatching a whole split at once: requests sent within {@code linger-ms} go out as one
+     * compressed batch, and each is acknowledged by all in-sync replicas. Requests are keyed by step
+     * execution id and dealt out over the topic partitions by {@link PartitionRequestPartitioner}.
+     */
+    @Bean
+    public ProducerFactory<String, PartitionRequest> partitionRequestProducerFactory(
+            @Value("${batch.kafka.producer.linger-ms:5}") int lingerMs,
+            @Value("${batch.kafka.producer.batch-size:65536}") int batchSize,
+            @Value("${batch.kafka.producer.compression-type:lz4}") String compressionType,
+            @Value("${batch.kafka.producer.acks:all}") String acks) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        config.put(ProducerConfig.ACKS_CONFIG, acks);
+        config.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, PartitionRequestPartitioner.class);
+        return new DefaultKafkaProducerFactory<>(config, new StringSerializer(), new PartitionRequestSerializer());
+    }
+
+    @Bean
+    public KafkaTemplate<String, PartitionRequest> partitionRequestKafkaTemplate(
+            ProducerFactory<String, PartitionRequest> partitionRequestProducerFactory) {
+        return new KafkaTemplate<>(partitionRequestProducerFactory);
+    }
+
+    @Bean
+    public ConsumerFactory<String, PartitionRequest> partitionRequestConsumerFactory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, "batch-workers");
+        // requests sent before the worker group first joined are work to do, not history to skip
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        // a message that does not decode is handed to the error handler instead of failing every poll
+        return new DefaultKafkaConsumerFactory<>(config, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(new PartitionRequestDeserializer()));
+    }
+
+    /**
+     * Used by {@link PartitionWorker}, every consumer runs one partition at a time on its own thread,
+     * so it fetches one request per poll and may take up to {@code maxPollIntervalMillis} for it.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, PartitionRequest> partitionRequestListenerContainerFactory(
+            @Value("${batch.worker.kafka.concurrency:1}") int concurrency,
+            @Value("${batch.partition.remote.max-poll-interval-millis:3600000}") int maxPollIntervalMillis) {
+        ConcurrentKafkaListenerContainerFactory<String, PartitionRequest> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(partitionRequestConsumerFactory());
+        factory.setConcurrency(concurrency);
+        Properties consumer = new Properties();
+        consumer.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, "1");
+        consumer.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, String.valueOf(maxPollIntervalMillis));
+        factory.getContainerProperties().setKafkaConsumerProperties(consumer);
+        return factory;
+    }
 }
@@ -1,32 +1,99 @@
 package kia.example.springbatch.partitioningWithKafka;
 
+import kia.example.springbatch.partitioning.PartitionGridSize;
 import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.partition.PartitionHandler;
 import org.springframework.batch.core.partition.StepExecutionSplitter;
 import org.springframework.kafka.core.KafkaTemplate;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Remote partitioning over Kafka: every partition is sent to {@code topic} as a {@link PartitionRequest}
+ * and run by whichever {@link PartitionWorker} receives it, on this node or another one sharing the job
+ * repository. The manager then polls the repository every {@code pollIntervalMillis} until no partition
+ * is running any more and returns them, so the manager step's status and counts are the workers' results.
+ * <p>
+ * A partition still starting or running after {@code timeoutMillis} fails the manager step with a
+ * {@link TimeoutException}; the partitions are left as they are and a restart sends the unfinished ones again.
+ */
 public class KafkaPartitionHandler implements PartitionHandler {
-    private final KafkaTemplate kafkaTemplate;
+    private final KafkaTemplate<String, PartitionRequest> kafkaTemplate;
     private final String topic;
+    private final PartitionGridSize partitionGridSize;
+    private final JobExplorer jobExplorer;
+    private final String stepName;
+    private final long pollIntervalMillis;
+    private final long timeoutMillis;
 
-    public KafkaPartitionHandler(KafkaTemplate kafkaTemplate, String topic) {
+    /**
+     * @param stepName bean name of the step the workers run each partition with
+     */
+    public KafkaPartitionHandler(KafkaTemplate<String, PartitionRequest> kafkaTemplate, String topic, PartitionGridSize partitionGridSize,
+                                 JobExplorer jobExplorer, String stepName, long pollIntervalMillis, long timeoutMillis) {
         this.kafkaTemplate = kafkaTemplate;
         this.topic = topic;
+        this.partitionGridSize = partitionGridSize;
+        this.jobExplorer = jobExplorer;
+        this.stepName = stepName;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.timeoutMillis = timeoutMillis;
     }
 
     @Override
     public Collection<StepExecution> handle(StepExecutionSplitter splitter, StepExecution stepExecution) throws Exception {
-        var gridSize = 3 ;//you manage by application property or by custom logic
+        var gridSize = partitionGridSize.resolve(stepExecution);
         Set<StepExecution> partitions = splitter.split(stepExecution, gridSize);
-        for (StepExecution entry : partitions) {
-            String partitionData = entry.toString(); // You may want to use JSON serialization
-            kafkaTemplate.send(topic, partitionData);
+        List<CompletableFuture<?>> sends = new ArrayList<>();
+        for (StepExecution partition : partitions) {
+            sends.add(kafkaTemplate.send(topic, String.valueOf(partition.getId()), PartitionRequest.of(partition, stepName)));
+        }
+        awaitSent(sends);
+        return awaitWorkers(partitions);
+    }
+
+    /**
+     * The requests are sent asynchronously so the producer can batch them; this waits until the broker
+     * acknowledged all of them (at most the producer's {@code delivery.timeout.ms}), so a request that never
+     * made it fails the step now instead of at the timeout.
+     */
+    private static void awaitSent(List<CompletableFuture<?>> sends) throws Exception {
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            long failed = sends.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+            throw new IllegalStateException(failed + " of " + sends.size() + " partition requests were not acknowledged",
+                    e.getCause());
+        }
+    }
+
+    private Collection<StepExecution> awaitWorkers(Set<StepExecution> partitions) throws Exception {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (true) {
+            Thread.sleep(pollIntervalMillis);
+            List<StepExecution> results = new ArrayList<>(partitions.size());
+            int running = 0;
+            for (StepExecution partition : partitions) {
+                StepExecution result = jobExplorer.getStepExecution(partition.getJobExecutionId(), partition.getId());
+                results.add(result);
+                if (result.getStatus().isRunning()) {
+                    running++;
+                }
+            }
+            if (running == 0) {
+                return results;
+            }
+            if (System.currentTimeMillis() > deadline) {
+                throw new TimeoutException(running + " of " + partitions.size()
+                        + " partitions still running after " + timeoutMillis + " ms");
+            }
         }
-        // Return empty, since the actual StepExecutions are handled by workers.
-        return Collections.emptyList();
     }
 }
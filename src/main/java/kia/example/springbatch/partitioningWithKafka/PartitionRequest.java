@@ -0,0 +1,23 @@
+package kia.example.springbatch.partitioningWithKafka;
+
+import org.springframework.batch.core.StepExecution;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * What the manager sends a worker for one partition: enough to load the partition's
+ * {@link StepExecution} from the shared job repository and to find the step to run it with,
+ * plus the partition's execution context for workers that do not load it (the integration-Kafka
+ * worker turns it into job parameters). On the wire it is encoded by {@link PartitionRequestCodec}.
+ *
+ * @param context entries of type {@code Long}, {@code Integer}, {@code Double}, {@code Boolean} or {@code String}
+ */
+public record PartitionRequest(long jobExecutionId, long stepExecutionId, String stepName, Map<String, Object> context) {
+
+    public static PartitionRequest of(StepExecution partition, String stepName) {
+        Map<String, Object> context = new TreeMap<>();
+        partition.getExecutionContext().entrySet().forEach(entry -> context.put(entry.getKey(), entry.getValue()));
+        return new PartitionRequest(partition.getJobExecutionId(), partition.getId(), stepName, context);
+    }
+}
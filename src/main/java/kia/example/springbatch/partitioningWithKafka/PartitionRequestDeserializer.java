@@ -0,0 +1,19 @@
+package kia.example.springbatch.partitioningWithKafka;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+public class PartitionRequestDeserializer implements Deserializer<PartitionRequest> {
+
+    @Override
+    public PartitionRequest deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return PartitionRequestCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Cannot decode partition request from " + topic, e);
+        }
+    }
+}
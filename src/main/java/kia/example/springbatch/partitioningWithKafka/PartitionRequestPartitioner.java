@@ -0,0 +1,33 @@
+package kia.example.springbatch.partitioningWithKafka;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.utils.Utils;
+
+import java.util.Map;
+
+/**
+ * Puts a {@link PartitionRequest} on topic partition {@code stepExecutionId % partitions}. The step
+ * executions of one split get consecutive ids, so its requests are dealt out evenly over the topic
+ * partitions, and with them over the worker consumers, where hashing the key could put several on the
+ * same one. Other records are placed by the hash of their key, like the default partitioner.
+ */
+public class PartitionRequestPartitioner implements Partitioner {
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes, Cluster cluster) {
+        int partitions = cluster.partitionCountForTopic(topic);
+        if (value instanceof PartitionRequest request) {
+            return (int) Math.floorMod(request.stepExecutionId(), (long) partitions);
+        }
+        return keyBytes == null ? 0 : Utils.toPositive(Utils.murmur2(keyBytes)) % partitions;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+}
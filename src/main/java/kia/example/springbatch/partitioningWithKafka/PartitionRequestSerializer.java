@@ -0,0 +1,11 @@
+package kia.example.springbatch.partitioningWithKafka;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+public class PartitionRequestSerializer implements Serializer<PartitionRequest> {
+
+    @Override
+    public byte[] serialize(String topic, PartitionRequest request) {
+        return request == null ? null : PartitionRequestCodec.encode(request);
+    }
+}
@@ -1,15 +1,84 @@
 package kia.example.springbatch.partitioningWithKafka;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobInterruptedException;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+/**
+ * Runs the partitions {@link KafkaPartitionHandler} sends. The partition's step execution is loaded
+ * from the shared job repository and executed with the step named in the request, which writes the
+ * outcome back to the repository where the manager picks it up. The offset is committed once the
+ * step has finished.
+ * <p>
+ * Before running it a worker claims the partition by moving it from {@code STARTING} to {@code STARTED}
+ * in one conditional update, so of two workers receiving the same request (a redelivery after a
+ * rebalance) only one runs it and the other skips it.
+ * <p>
+ * The step runs on the consumer thread, which does not poll meanwhile. A partition that takes longer
+ * than {@code batch.partition.remote.max-poll-interval-millis} gets the consumer removed from the group
+ * and its request redelivered; the claim makes the new owner skip it, and only the offset commit is
+ * lost, so size that interval above the longest partition.
+ */
 @Component
 public class PartitionWorker {
-    @KafkaListener(topics = "batch-partitions", groupId = "batch-workers")
-    public void listen(String partitionData) {
-        // Parse partitionData back to ExecutionContext
-        // Execute the partitioned step logic here
-        System.out.println("Received partition: " + partitionData);
-        // Run the step using this partition data
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionWorker.class);
+
+    private static final String CLAIM_SQL = "UPDATE BATCH_STEP_EXECUTION SET STATUS = ?, VERSION = VERSION + 1"
+            + " WHERE STEP_EXECUTION_ID = ? AND STATUS = ? AND VERSION = ?";
+
+    private final JobExplorer jobExplorer;
+    private final BeanFactory beanFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    public PartitionWorker(JobExplorer jobExplorer, BeanFactory beanFactory, JdbcTemplate jdbcTemplate) {
+        this.jobExplorer = jobExplorer;
+        this.beanFactory = beanFactory;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @KafkaListener(topics = "batch-partitions", groupId = "batch-workers",
+            containerFactory = "partitionRequestListenerContainerFactory")
+    public void listen(PartitionRequest request) {
+        StepExecution partition = jobExplorer.getStepExecution(request.jobExecutionId(), request.stepExecutionId());
+        if (partition == null) {
+            log.warn("Skipping partition request for an unknown step execution: {}", request);
+            return;
+        }
+        if (!claim(partition)) {
+            // redelivered after the partition already ran (or is running) somewhere
+            log.info("Skipping {}, it is no longer {}", partition.getStepName(), BatchStatus.STARTING);
+            return;
+        }
+        Step step = beanFactory.getBean(request.stepName(), Step.class);
+        try {
+            step.execute(partition);
+        } catch (JobInterruptedException e) {
+            // the step has stored itself as STOPPED
+            log.info("Partition {} was stopped", partition.getStepName());
+        }
+    }
+
+    private boolean claim(StepExecution partition) {
+        if (partition.getStatus() != BatchStatus.STARTING) {
+            return false;
+        }
+        int claimed = jdbcTemplate.update(CLAIM_SQL, BatchStatus.STARTED.name(), partition.getId(),
+                BatchStatus.STARTING.name(), partition.getVersion());
+        if (claimed == 0) {
+            return false;
+        }
+        // the step's own updates are checked against the version in the repository
+        partition.setStatus(BatchStatus.STARTED);
+        partition.incrementVersion();
+        return true;
     }
 }
@@ -0,0 +1,104 @@
+package kia.example.springbatch.reader;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Base for readers that walk a table in ascending id order, optionally limited to an
+ * inclusive {@code start}/{@code end} range (partitioned steps).
+ * <p>
+ * The id of the last item handed out is stored under {@code lastId} in the
+ * {@link ExecutionContext}, so on restart subclasses simply query
+ * {@code id > lastId} instead of re-reading and skipping what was already committed.
+ * Every subclass uses the same key, which keeps the read modes interchangeable
+ * between a failed run and its restart.
+ */
+public abstract class AbstractIdRangeItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> {
+
+    static final String LAST_ID = "lastId";
+
+    private Long start;
+    private Long end;
+    private long lastId;
+
+    /**
+     * First id to read (inclusive), {@code null} for the start of the table.
+     */
+    public void setStart(Long start) {
+        this.start = start;
+    }
+
+    /**
+     * Last id to read (inclusive), {@code null} for the end of the table.
+     */
+    public void setEnd(Long end) {
+        this.end = end;
+    }
+
+    protected long getLastId() {
+        return lastId;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        lastId = start != null ? start - 1 : Long.MIN_VALUE;
+        if (isSaveState() && executionContext.containsKey(getExecutionContextKey(LAST_ID))) {
+            lastId = executionContext.getLong(getExecutionContextKey(LAST_ID));
+        }
+        super.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+        if (isSaveState()) {
+            executionContext.putLong(getExecutionContextKey(LAST_ID), lastId);
+        }
+    }
+
+    @Override
+    protected final T doRead() throws Exception {
+        T item = readNext();
+        if (item != null) {
+            lastId = idOf(item);
+        }
+        return item;
+    }
+
+    @Override
+    protected void jumpToItem(int itemIndex) {
+        // the restored lastId already positions the reader, nothing to skip
+    }
+
+    /**
+     * Next item after {@link #getLastId()}, or {@code null} when the range is exhausted.
+     */
+    protected abstract T readNext() throws Exception;
+
+    protected abstract long idOf(T item);
+
+    /**
+     * {@code WHERE}/{@code ORDER BY} tail matching the configured range, bound by {@link #bindRange}.
+     */
+    protected String rangeClause() {
+        return end != null
+                ? " WHERE id > ? AND id <= ? ORDER BY id"
+                : " WHERE id > ? ORDER BY id";
+    }
+
+    /**
+     * Binds the {@link #rangeClause()} parameters and returns the next free parameter index.
+     */
+    protected int bindRange(PreparedStatement ps) throws SQLException {
+        int index = 1;
+        ps.setLong(index++, lastId);
+        if (end != null) {
+            ps.setLong(index++, end);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,81 @@
+package kia.example.springbatch.reader;
+
+import kia.example.springbatch.model.PersonRow;
+import org.springframework.jdbc.support.JdbcUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Streams {@link PersonRow}s through one forward-only, read-only cursor.
+ * Rows are pulled from the driver {@code fetchSize} at a time and nothing is kept
+ * once it has been handed out, so heap use does not depend on the table size.
+ * <p>
+ * The cursor lives on its own connection (not the chunk transaction's), with
+ * auto-commit off because some drivers (PostgreSQL, MySQL) only honour the fetch
+ * size inside a transaction. On restart the query starts again after the
+ * committed {@code lastId}.
+ */
+public class PersonCursorItemReader extends AbstractIdRangeItemReader<PersonRow> {
+
+    private final DataSource dataSource;
+    private int fetchSize = 1000;
+
+    private Connection connection;
+    private boolean autoCommit;
+    private PreparedStatement statement;
+    private ResultSet resultSet;
+
+    public PersonCursorItemReader(DataSource dataSource) {
+        this.dataSource = dataSource;
+        setName("personCursorItemReader");
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        connection = dataSource.getConnection();
+        autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        statement = connection.prepareStatement("SELECT id, first_name, last_name FROM person" + rangeClause(),
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(fetchSize);
+        bindRange(statement);
+        resultSet = statement.executeQuery();
+    }
+
+    @Override
+    protected PersonRow readNext() throws Exception {
+        if (!resultSet.next()) {
+            return null;
+        }
+        return PersonKeysetItemReader.PERSON_ROW_MAPPER.mapRow(resultSet, getCurrentItemCount());
+    }
+
+    @Override
+    protected long idOf(PersonRow person) {
+        return person.id();
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        JdbcUtils.closeResultSet(resultSet);
+        JdbcUtils.closeStatement(statement);
+        resultSet = null;
+        statement = null;
+        if (connection != null) {
+            try {
+                connection.rollback(); // nothing was written, just end the read transaction
+                connection.setAutoCommit(autoCommit);
+            } finally {
+                JdbcUtils.closeConnection(connection);
+                connection = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package kia.example.springbatch.reader;
+
+import kia.example.springbatch.model.PersonRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Builds the {@link PersonRow} reader used by the chunk steps, in the mode picked by
+ * {@code batch.reader.mode}: {@code keyset} pages with a seek query, {@code cursor}
+ * streams everything through one forward-only cursor.
+ */
+@Component
+public class PersonItemReaderFactory {
+
+    public enum Mode {KEYSET, CURSOR}
+
+    private final DataSource dataSource;
+    private final Mode mode;
+    private final int pageSize;
+    private final int fetchSize;
+
+    public PersonItemReaderFactory(DataSource dataSource,
+                                   @Value("${batch.reader.mode:keyset}") Mode mode,
+                                   @Value("${batch.reader.page-size:100}") int pageSize,
+                                   @Value("${batch.reader.fetch-size:1000}") int fetchSize) {
+        this.dataSource = dataSource;
+        this.mode = mode;
+        this.pageSize = pageSize;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Connections a reader holds besides the chunk transaction's: the cursor keeps its own open.
+     */
+    public int extraConnectionsPerReader() {
+        return mode == Mode.CURSOR ? 1 : 0;
+    }
+
+    /**
+     * @param start first id (inclusive) or {@code null} for an unbounded read
+     * @param end   last id (inclusive) or {@code null} for an unbounded read
+     */
+    public AbstractIdRangeItemReader<PersonRow> create(String name, Long start, Long end) {
+        AbstractIdRangeItemReader<PersonRow> reader;
+        if (mode == Mode.CURSOR) {
+            PersonCursorItemReader cursorReader = new PersonCursorItemReader(dataSource);
+            cursorReader.setFetchSize(fetchSize);
+            reader = cursorReader;
+        } else {
+            PersonKeysetItemReader keysetReader = new PersonKeysetItemReader(dataSource);
+            keysetReader.setPageSize(pageSize);
+            reader = keysetReader;
+        }
+        reader.setName(name);
+        reader.setStart(start);
+        reader.setEnd(end);
+        return reader;
+    }
+}
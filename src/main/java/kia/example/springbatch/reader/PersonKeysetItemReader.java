@@ -0,0 +1,73 @@
+package kia.example.springbatch.reader;
+
+import kia.example.springbatch.model.PersonRow;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.sql.DataSource;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Reads {@link PersonRow}s page by page with a seek predicate
+ * ({@code WHERE id > :lastId ORDER BY id LIMIT :pageSize}) instead of OFFSET,
+ * so every page costs the same no matter how deep into the table it is.
+ */
+public class PersonKeysetItemReader extends AbstractIdRangeItemReader<PersonRow> {
+
+    static final RowMapper<PersonRow> PERSON_ROW_MAPPER = (rs, rowNum) ->
+            new PersonRow(rs.getLong("id"), rs.getString("first_name"), rs.getString("last_name"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private int pageSize = 100;
+
+    private Iterator<PersonRow> page;
+    private boolean lastPage;
+
+    public PersonKeysetItemReader(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        setName("personKeysetItemReader");
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    protected void doOpen() {
+        page = null;
+        lastPage = false;
+    }
+
+    @Override
+    protected PersonRow readNext() {
+        if (page == null || !page.hasNext()) {
+            if (lastPage) {
+                return null;
+            }
+            List<PersonRow> persons = fetchPage();
+            lastPage = persons.size() < pageSize;
+            page = persons.iterator();
+            if (!page.hasNext()) {
+                return null;
+            }
+        }
+        return page.next();
+    }
+
+    @Override
+    protected long idOf(PersonRow person) {
+        return person.id();
+    }
+
+    @Override
+    protected void doClose() {
+        page = null;
+    }
+
+    private List<PersonRow> fetchPage() {
+        return jdbcTemplate.query("SELECT id, first_name, last_name FROM person" + rangeClause() + " LIMIT ?",
+                ps -> ps.setInt(bindRange(ps), pageSize),
+                PERSON_ROW_MAPPER);
+    }
+}
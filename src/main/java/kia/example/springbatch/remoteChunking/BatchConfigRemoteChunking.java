@@ -0,0 +1,106 @@
+package kia.example.springbatch.remoteChunking;
+
+import kia.example.springbatch.metrics.ChunkMetricsListener;
+import kia.example.springbatch.model.PersonAfterProcess;
+import kia.example.springbatch.model.PersonRow;
+import kia.example.springbatch.reader.AbstractIdRangeItemReader;
+import kia.example.springbatch.reader.PersonItemReaderFactory;
+import kia.example.springbatch.writer.PersonAfterProcessJdbcWriter;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.integration.chunk.RemoteChunkingManagerStepBuilder;
+import org.springframework.batch.integration.chunk.RemoteChunkingWorkerBuilder;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.core.MessagingTemplate;
+import org.springframework.integration.dsl.IntegrationFlow;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.PollableChannel;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Remote chunking for jobs where processing dominates: the manager step is the only one reading
+ * {@code person}, it sends every chunk of rows over Kafka and the workers process and write it and
+ * reply with the chunk's counts. At most {@code batch.remote-chunking.max-in-flight} chunks are
+ * unanswered at any time; the manager stops reading until a reply comes in.
+ */
+@Configuration
+public class BatchConfigRemoteChunking {
+
+    private final PersonItemReaderFactory personItemReaderFactory;
+    private final ItemProcessor<PersonRow, PersonAfterProcess> personProcessor;
+    private final PersonAfterProcessJdbcWriter personAfterProcessWriter;
+
+    public BatchConfigRemoteChunking(PersonItemReaderFactory personItemReaderFactory,
+                                     ItemProcessor<PersonRow, PersonAfterProcess> personProcessor,
+                                     PersonAfterProcessJdbcWriter personAfterProcessWriter) {
+        this.personItemReaderFactory = personItemReaderFactory;
+        this.personProcessor = personProcessor;
+        this.personAfterProcessWriter = personAfterProcessWriter;
+    }
+
+    // ** MANAGER **
+
+    @Bean
+    @StepScope
+    public AbstractIdRangeItemReader<PersonRow> remoteChunkingPersonReader() {
+        return personItemReaderFactory.create("remoteChunkingPersonReader", null, null);
+    }
+
+    /**
+     * @param replyTimeoutMillis how long the step waits at its end for the replies still outstanding
+     */
+    @Bean
+    public Step remoteChunkingManagerStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                          @Qualifier("chunkRequests") MessageChannel chunkRequests,
+                                          @Qualifier("chunkReplies") PollableChannel chunkReplies,
+                                          @Qualifier("remoteChunkingPersonReader") AbstractIdRangeItemReader<PersonRow> reader,
+                                          ChunkMetricsListener chunkMetricsListener,
+                                          @Value("${batch.remote-chunking.chunk-size:100}") int chunkSize,
+                                          @Value("${batch.remote-chunking.max-in-flight:8}") int maxInFlight,
+                                          @Value("${batch.remote-chunking.reply-timeout-millis:60000}") long replyTimeoutMillis) {
+        RemoteWriteCountListener writeCountListener = new RemoteWriteCountListener();
+        MessagingTemplate messagingTemplate = new MessagingTemplate();
+        messagingTemplate.setDefaultChannel(chunkRequests);
+        messagingTemplate.setReceiveTimeout(1000);
+        return chunkMetricsListener.register(new RemoteChunkingManagerStepBuilder<PersonRow, PersonAfterProcess>("remoteChunkingManagerStep", jobRepository)
+                .messagingTemplate(messagingTemplate)
+                .inputChannel(chunkReplies)
+                .throttleLimit((long) maxInFlight) // the long overload, the int one is the deprecated task executor limit
+                .maxWaitTimeouts((int) Math.max(1, replyTimeoutMillis / 1000))
+                .transactionManager(transactionManager)
+                .chunk(chunkSize)
+                .reader(reader))
+                .listener((StepExecutionListener) writeCountListener)
+                .listener((ItemWriteListener<Object>) writeCountListener)
+                .build();
+    }
+
+    @Bean
+    public Job remoteChunkingJob(Step remoteChunkingManagerStep, JobRepository jobRepository) {
+        return new JobBuilder("remoteChunkingJob", jobRepository)
+                .start(remoteChunkingManagerStep)
+                .build();
+    }
+
+    // ** WORKER **
+
+    @Bean
+    public IntegrationFlow remoteChunkingWorkerFlow(@Qualifier("workerChunkRequests") MessageChannel workerChunkRequests,
+                                                    @Qualifier("workerChunkReplies") MessageChannel workerChunkReplies) {
+        return new RemoteChunkingWorkerBuilder<PersonRow, PersonAfterProcess>()
+                .itemProcessor(personProcessor)
+                .itemWriter(personAfterProcessWriter)
+                .inputChannel(workerChunkRequests)
+                .outputChannel(workerChunkReplies)
+                .build();
+    }
+}
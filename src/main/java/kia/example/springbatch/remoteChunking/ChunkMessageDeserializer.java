@@ -0,0 +1,32 @@
+package kia.example.springbatch.remoteChunking;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+
+/**
+ * Reads what {@link ChunkMessageSerializer} wrote. Only Spring Batch, JDK and this application's
+ * classes are accepted, so a record from elsewhere on the topic cannot instantiate arbitrary classes.
+ */
+public class ChunkMessageDeserializer implements Deserializer<Object> {
+
+    private static final ObjectInputFilter ALLOWED = ObjectInputFilter.Config.createFilter(
+            "kia.example.springbatch.**;org.springframework.batch.**;java.**;!*");
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            in.setObjectInputFilter(ALLOWED);
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new SerializationException("Cannot deserialize chunk message from " + topic, e);
+        }
+    }
+}
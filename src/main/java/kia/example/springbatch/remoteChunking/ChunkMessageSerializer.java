@@ -0,0 +1,29 @@
+package kia.example.springbatch.remoteChunking;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
+/**
+ * Java serialization of the {@code ChunkRequest} / {@code ChunkResponse} messages of remote chunking,
+ * which carry the items and the step contribution. Read back by {@link ChunkMessageDeserializer}.
+ */
+public class ChunkMessageSerializer implements Serializer<Object> {
+
+    @Override
+    public byte[] serialize(String topic, Object message) {
+        if (message == null) {
+            return null;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(message);
+        } catch (IOException e) {
+            throw new SerializationException("Cannot serialize chunk message for " + topic, e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,146 @@
+package kia.example.springbatch.remoteChunking;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.batch.integration.chunk.ChunkRequest;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.dsl.IntegrationFlow;
+import org.springframework.integration.kafka.dsl.Kafka;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.PollableChannel;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Kafka transport of remote chunking: the manager's chunk requests go to {@code batch-chunk-requests},
+ * consumed by the workers of group {@code batch-chunk-workers}; their replies come back on
+ * {@code batch-chunk-replies} to the manager's group {@code batch-chunk-manager}. Only one manager may
+ * run a remote chunking step at a time, the replies are not routed per manager.
+ */
+@Configuration
+public class RemoteChunkingKafkaConfig {
+
+    static final String REQUESTS_TOPIC = "batch-chunk-requests";
+    static final String REPLIES_TOPIC = "batch-chunk-replies";
+
+    private final String bootstrapServers;
+
+    public RemoteChunkingKafkaConfig(@Value("${spring.kafka.bootstrap-servers:localhost:9092}") String bootstrapServers) {
+        this.bootstrapServers = bootstrapServers;
+    }
+
+    // ** MANAGER **
+
+    @Bean
+    public MessageChannel chunkRequests() {
+        return new DirectChannel();
+    }
+
+    /**
+     * Polled by the manager step for the replies of its chunks.
+     */
+    @Bean
+    public PollableChannel chunkReplies() {
+        return new QueueChannel();
+    }
+
+    @Bean
+    public IntegrationFlow chunkRequestsToKafkaFlow(KafkaTemplate<String, Object> chunkKafkaTemplate) {
+        return IntegrationFlow.from(chunkRequests())
+                .handle(Kafka.outboundChannelAdapter(chunkKafkaTemplate)
+                        .topic(REQUESTS_TOPIC)
+                        // spreads the chunks over the topic partitions, and with them over the workers
+                        .messageKey(message -> String.valueOf(((ChunkRequest<?>) message.getPayload()).getSequence())))
+                .get();
+    }
+
+    @Bean
+    public IntegrationFlow chunkRepliesFromKafkaFlow(@Qualifier("chunkManagerConsumerFactory") ConsumerFactory<String, Object> consumerFactory) {
+        return IntegrationFlow
+                .from(Kafka.messageDrivenChannelAdapter(consumerFactory, REPLIES_TOPIC))
+                .channel(chunkReplies())
+                .get();
+    }
+
+    // ** WORKER **
+
+    @Bean
+    public MessageChannel workerChunkRequests() {
+        return new DirectChannel();
+    }
+
+    @Bean
+    public MessageChannel workerChunkReplies() {
+        return new DirectChannel();
+    }
+
+    /**
+     * Workers scale by consumers: up to one per partition of {@code batch-chunk-requests} over all nodes.
+     */
+    @Bean
+    public IntegrationFlow chunkRequestsFromKafkaFlow(@Qualifier("chunkWorkerConsumerFactory") ConsumerFactory<String, Object> consumerFactory,
+                                                      @Value("${batch.remote-chunking.worker-concurrency:1}") int concurrency) {
+        return IntegrationFlow
+                .from(Kafka.messageDrivenChannelAdapter(consumerFactory, REQUESTS_TOPIC)
+                        .configureListenerContainer(container -> container.concurrency(concurrency)))
+                .channel(workerChunkRequests())
+                .get();
+    }
+
+    @Bean
+    public IntegrationFlow chunkRepliesToKafkaFlow(KafkaTemplate<String, Object> chunkKafkaTemplate) {
+        return IntegrationFlow.from(workerChunkReplies())
+                .handle(Kafka.outboundChannelAdapter(chunkKafkaTemplate).topic(REPLIES_TOPIC))
+                .get();
+    }
+
+    // ** SERIALIZATION **
+
+    @Bean
+    public ProducerFactory<String, Object> chunkProducerFactory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+        return new DefaultKafkaProducerFactory<>(config, new StringSerializer(), new ChunkMessageSerializer());
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> chunkKafkaTemplate() {
+        return new KafkaTemplate<>(chunkProducerFactory());
+    }
+
+    @Bean
+    public ConsumerFactory<String, Object> chunkWorkerConsumerFactory() {
+        // chunks sent before the worker group first joined still have to be processed
+        return chunkConsumerFactory("batch-chunk-workers", "earliest");
+    }
+
+    @Bean
+    public ConsumerFactory<String, Object> chunkManagerConsumerFactory() {
+        // replies left over from an earlier run belong to no running step
+        return chunkConsumerFactory("batch-chunk-manager", "latest");
+    }
+
+    private ConsumerFactory<String, Object> chunkConsumerFactory(String groupId, String autoOffsetReset) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, autoOffsetReset);
+        return new DefaultKafkaConsumerFactory<>(config, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(new ChunkMessageDeserializer()));
+    }
+}
@@ -0,0 +1,41 @@
+package kia.example.springbatch.remoteChunking;
+
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+
+/**
+ * The manager step counts every item it sends as written, and then adds the write counts the workers
+ * reply with, so its write count would end up twice the rows written. This takes the sent items back
+ * out when the step ends, leaving the workers' count. Until then the stored write count includes both.
+ * <p>
+ * The sent count is kept under {@code remoteSentCount} in the step execution's context, so one listener
+ * serves overlapping executions of the step. It is reset when a step execution starts, because a
+ * restart copies the context of the failed one but starts its counts at 0.
+ */
+public class RemoteWriteCountListener implements ItemWriteListener<Object>, StepExecutionListener {
+
+    static final String SENT = "remoteSentCount";
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        stepExecution.getExecutionContext().putLong(SENT, 0);
+    }
+
+    @Override
+    public void afterWrite(Chunk<?> items) {
+        ExecutionContext context = StepSynchronizationManager.getContext().getStepExecution().getExecutionContext();
+        context.putLong(SENT, context.getLong(SENT, 0) + items.size());
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        long sent = stepExecution.getExecutionContext().getLong(SENT, 0);
+        stepExecution.setWriteCount(Math.max(0, stepExecution.getWriteCount() - sent));
+        return null;
+    }
+}
@@ -0,0 +1,175 @@
+package kia.example.springbatch.repository;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.JobRestartException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Job repository for short, frequent jobs whose metadata writes cost more than their work.
+ * Creating instances, executions and step executions and every job-level update go straight to
+ * the delegate, but while a step is running its per-chunk updates (the step execution row and
+ * its execution context) are only kept in memory and written at most once per
+ * {@code flushIntervalMillis}, and always when the step starts and when it ends.
+ * <p>
+ * What is given up compared to the JDBC repository, for steps using this repository:
+ * <ul>
+ *     <li>a restart after a crash resumes from the last flushed execution context, not the last
+ *     committed chunk, so up to {@code flushIntervalMillis} of chunks are processed again and the
+ *     writer has to tolerate that (at-least-once instead of exactly-once per chunk);</li>
+ *     <li>read/write/commit counters seen by other processes lag behind by up to the interval;</li>
+ *     <li>a stop request ({@code JobOperator.stop}) is only noticed at the next flush, because the
+ *     delegate checks for it while updating the step.</li>
+ * </ul>
+ * Status changes are never delayed: an execution that failed or completed is written at once.
+ */
+public class CoalescingJobRepository implements JobRepository {
+
+    private final JobRepository delegate;
+    private final long flushIntervalNanos;
+
+    /** last time the step execution (by id) was written, only for running steps */
+    private final Map<Long, Long> lastFlush = new ConcurrentHashMap<>();
+
+    public CoalescingJobRepository(JobRepository delegate, long flushIntervalMillis) {
+        this.delegate = delegate;
+        this.flushIntervalNanos = flushIntervalMillis * 1_000_000;
+    }
+
+    @Override
+    public void update(StepExecution stepExecution) {
+        if (coalesce(stepExecution)) {
+            return;
+        }
+        delegate.update(stepExecution);
+        flushed(stepExecution);
+    }
+
+    @Override
+    public void updateExecutionContext(StepExecution stepExecution) {
+        if (coalesce(stepExecution)) {
+            return;
+        }
+        delegate.updateExecutionContext(stepExecution);
+    }
+
+    /**
+     * The chunk loop writes the execution context, then the step execution, so the context is
+     * flushed together with the step execution that follows it.
+     */
+    private boolean coalesce(StepExecution stepExecution) {
+        if (stepExecution.getId() == null) {
+            return false;
+        }
+        if (stepExecution.getStatus() != BatchStatus.STARTED) {
+            lastFlush.remove(stepExecution.getId());
+            return false;
+        }
+        Long last = lastFlush.get(stepExecution.getId());
+        return last != null && System.nanoTime() - last < flushIntervalNanos;
+    }
+
+    private void flushed(StepExecution stepExecution) {
+        if (stepExecution.getStatus() == BatchStatus.STARTED) {
+            lastFlush.put(stepExecution.getId(), System.nanoTime());
+        } else {
+            lastFlush.remove(stepExecution.getId());
+        }
+    }
+
+    @Override
+    public List<String> getJobNames() {
+        return delegate.getJobNames();
+    }
+
+    @Override
+    public List<JobInstance> findJobInstancesByName(String jobName, int start, int count) {
+        return delegate.findJobInstancesByName(jobName, start, count);
+    }
+
+    @Override
+    public List<JobExecution> findJobExecutions(JobInstance jobInstance) {
+        return delegate.findJobExecutions(jobInstance);
+    }
+
+    @Override
+    public boolean isJobInstanceExists(String jobName, JobParameters jobParameters) {
+        return delegate.isJobInstanceExists(jobName, jobParameters);
+    }
+
+    @Override
+    public JobInstance createJobInstance(String jobName, JobParameters jobParameters) {
+        return delegate.createJobInstance(jobName, jobParameters);
+    }
+
+    @Override
+    public JobExecution createJobExecution(String jobName, JobParameters jobParameters)
+            throws JobExecutionAlreadyRunningException, JobRestartException, JobInstanceAlreadyCompleteException {
+        return delegate.createJobExecution(jobName, jobParameters);
+    }
+
+    @Override
+    public void update(JobExecution jobExecution) {
+        delegate.update(jobExecution);
+    }
+
+    @Override
+    public void add(StepExecution stepExecution) {
+        delegate.add(stepExecution);
+    }
+
+    @Override
+    public void addAll(Collection<StepExecution> stepExecutions) {
+        delegate.addAll(stepExecutions);
+    }
+
+    @Override
+    public void updateExecutionContext(JobExecution jobExecution) {
+        delegate.updateExecutionContext(jobExecution);
+    }
+
+    @Override
+    public JobInstance getJobInstance(String jobName, JobParameters jobParameters) {
+        return delegate.getJobInstance(jobName, jobParameters);
+    }
+
+    @Override
+    public StepExecution getLastStepExecution(JobInstance jobInstance, String stepName) {
+        return delegate.getLastStepExecution(jobInstance, stepName);
+    }
+
+    @Override
+    public long getStepExecutionCount(JobInstance jobInstance, String stepName) {
+        return delegate.getStepExecutionCount(jobInstance, stepName);
+    }
+
+    @Override
+    public JobExecution getLastJobExecution(String jobName, JobParameters jobParameters) {
+        return delegate.getLastJobExecution(jobName, jobParameters);
+    }
+
+    @Override
+    public void deleteStepExecution(StepExecution stepExecution) {
+        delegate.deleteStepExecution(stepExecution);
+    }
+
+    @Override
+    public void deleteJobExecution(JobExecution jobExecution) {
+        delegate.deleteJobExecution(jobExecution);
+    }
+
+    @Override
+    public void deleteJobInstance(JobInstance jobInstance) {
+        delegate.deleteJobInstance(jobInstance);
+    }
+}
@@ -0,0 +1,175 @@
+package kia.example.springbatch.repository;
+
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.batch.core.repository.dao.Jackson2ExecutionContextStringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Execution context format for the small, flat contexts this project writes at every chunk commit
+ * (partition ranges, reader positions, counters and the step type strings Spring Batch adds):
+ * one line per entry, a type letter, the key, {@code =} and the value as text, e.g.
+ * {@code Lstart=1250001}. Ints, longs, doubles, booleans and strings are supported; a context
+ * holding anything else is written in the default Jackson format, whole.
+ * <p>
+ * The output stays text, because the JDBC repository stores it as a string in
+ * {@code SHORT_CONTEXT}. Reading recognises both formats by the first line, so contexts written
+ * before the switch (or by {@code batch.repository.context-format=jackson}) still restart.
+ * Registered under the name {@code @EnableBatchProcessing} looks up, so the job repository and
+ * the job explorer both use it.
+ */
+@Component("executionContextSerializer")
+public class CompactExecutionContextSerializer implements ExecutionContextSerializer {
+
+    static final String HEADER = "~ctx1\n";
+
+    private final ExecutionContextSerializer fallback = new Jackson2ExecutionContextStringSerializer();
+    private final boolean compact;
+
+    public CompactExecutionContextSerializer(@Value("${batch.repository.context-format:compact}") String format) {
+        this.compact = !"jackson".equalsIgnoreCase(format);
+    }
+
+    @Override
+    public void serialize(Map<String, Object> context, OutputStream out) throws IOException {
+        if (!compact || !supported(context)) {
+            fallback.serialize(context, out);
+            return;
+        }
+        StringBuilder text = new StringBuilder(HEADER.length() + 40 * context.size()).append(HEADER);
+        for (Map.Entry<String, Object> entry : context.entrySet()) {
+            Object value = entry.getValue();
+            text.append(typeOf(value));
+            escape(text, entry.getKey(), true);
+            text.append('=');
+            if (value instanceof String string) {
+                escape(text, string, false);
+            } else if (value instanceof Long number) {
+                text.append(number.longValue());
+            } else if (value instanceof Integer number) {
+                text.append(number.intValue());
+            } else {
+                text.append(value);
+            }
+            text.append('\n');
+        }
+        out.write(text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public Map<String, Object> deserialize(InputStream in) throws IOException {
+        byte[] bytes = in.readAllBytes();
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        if (!text.startsWith(HEADER)) {
+            return fallback.deserialize(new ByteArrayInputStream(bytes));
+        }
+        Map<String, Object> context = new HashMap<>();
+        StringBuilder key = new StringBuilder();
+        StringBuilder value = new StringBuilder();
+        int i = HEADER.length();
+        while (i < text.length()) {
+            char type = text.charAt(i++);
+            key.setLength(0);
+            i = unescape(text, i, '=', key);
+            value.setLength(0);
+            i = unescape(text, i, '\n', value);
+            context.put(key.toString(), parse(type, value.toString()));
+        }
+        return context;
+    }
+
+    private static boolean supported(Map<String, Object> context) {
+        for (Object value : context.values()) {
+            if (typeOf(value) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char typeOf(Object value) {
+        if (value instanceof Long) {
+            return 'L';
+        }
+        if (value instanceof Integer) {
+            return 'I';
+        }
+        if (value instanceof String) {
+            return 'S';
+        }
+        if (value instanceof Double) {
+            return 'D';
+        }
+        if (value instanceof Boolean) {
+            return 'Z';
+        }
+        return 0;
+    }
+
+    private static Object parse(char type, String value) throws IOException {
+        return switch (type) {
+            case 'L' -> Long.parseLong(value);
+            case 'I' -> Integer.parseInt(value);
+            case 'S' -> value;
+            case 'D' -> Double.parseDouble(value);
+            case 'Z' -> Boolean.parseBoolean(value);
+            default -> throw new IOException("Unknown execution context entry type '" + type + "'");
+        };
+    }
+
+    /**
+     * Backslash-escapes the line break, the backslash itself and, in keys, the {@code =} separator.
+     */
+    private static void escape(StringBuilder text, String value, boolean key) {
+        if (value.indexOf('\n') < 0 && value.indexOf('\\') < 0 && (!key || value.indexOf('=') < 0)) {
+            text.append(value);
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\n') {
+                text.append("\\n");
+            } else if (c == '\\' || (key && c == '=')) {
+                text.append('\\').append(c);
+            } else {
+                text.append(c);
+            }
+        }
+    }
+
+    /**
+     * Reads up to the unescaped {@code end} character into {@code target}, returns the index after it.
+     */
+    private static int unescape(String text, int from, char end, StringBuilder target) throws IOException {
+        int stop = text.indexOf(end, from);
+        if (stop >= 0 && text.lastIndexOf('\\', stop) < from) {
+            target.append(text, from, stop);
+            return stop + 1;
+        }
+        int i = from;
+        while (i < text.length()) {
+            char c = text.charAt(i++);
+            if (c == end) {
+                return i;
+            }
+            if (c == '\\') {
+                if (i == text.length()) {
+                    throw new IOException("Truncated execution context");
+                }
+                char escaped = text.charAt(i++);
+                target.append(escaped == 'n' ? '\n' : escaped);
+            } else {
+                target.append(c);
+            }
+        }
+        throw new IOException("Truncated execution context");
+    }
+}
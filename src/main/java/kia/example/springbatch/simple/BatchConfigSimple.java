@@ -1,74 +1,135 @@
 package kia.example.springbatch.simple;
 
 
-import jakarta.persistence.EntityManagerFactory;
-import kia.example.springbatch.model.Person;
+import kia.example.springbatch.chunk.AdaptiveChunkSizePolicy;
+import kia.example.springbatch.chunk.ChunkSizePolicyFactory;
+import kia.example.springbatch.incremental.IdWatermark;
+import kia.example.springbatch.metrics.ChunkMetricsListener;
+import kia.example.springbatch.model.PersonRow;
 import kia.example.springbatch.model.PersonAfterProcess;
+import kia.example.springbatch.reader.AbstractIdRangeItemReader;
+import kia.example.springbatch.reader.PersonItemReaderFactory;
+import kia.example.springbatch.writer.PersonAfterProcessJdbcWriter;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.integration.async.AsyncItemProcessor;
+import org.springframework.batch.integration.async.AsyncItemWriter;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.database.JpaItemWriter;
-import org.springframework.batch.item.database.JpaPagingItemReader;
-import org.springframework.batch.item.database.builder.JpaPagingItemReaderBuilder;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import java.util.concurrent.Future;
+
 @Configuration
 @EnableBatchProcessing
 public class BatchConfigSimple {
 
-    private final EntityManagerFactory entityManagerFactory;
+    private final PersonItemReaderFactory personItemReaderFactory;
     private final ItemProcessor personProcessor;
     private final SampleTasklet tasklet;
+    private final PersonAfterProcessJdbcWriter personAfterProcessWriter;
 
-    public BatchConfigSimple(EntityManagerFactory entityManagerFactory,
+    public BatchConfigSimple(PersonItemReaderFactory personItemReaderFactory,
                              ItemProcessor personProcessor,
-                             SampleTasklet tasklet) {
-        this.entityManagerFactory = entityManagerFactory;
+                             SampleTasklet tasklet,
+                             PersonAfterProcessJdbcWriter personAfterProcessWriter) {
+        this.personItemReaderFactory = personItemReaderFactory;
         this.personProcessor = personProcessor;
         this.tasklet = tasklet;
+        this.personAfterProcessWriter = personAfterProcessWriter;
     }
 
+    /**
+     * The whole table, or in incremental mode the rows of the job's {@link IdWatermark} window.
+     */
     @Bean
-    public JpaPagingItemReader<Person> reader() {
-        return new JpaPagingItemReaderBuilder<Person>()
-                .name("personItemReader")
-                .entityManagerFactory(entityManagerFactory)
-                .queryString("SELECT p FROM Person p")
-                .pageSize(10)
-                .build();
-    }
-
-
-    @Bean
-    public JpaItemWriter<PersonAfterProcess> writer() {
-        JpaItemWriter<PersonAfterProcess> writer = new JpaItemWriter<>();
-        writer.setEntityManagerFactory(entityManagerFactory);
-        return writer;
+    @StepScope
+    public AbstractIdRangeItemReader<PersonRow> reader(@Value("#{jobExecutionContext['" + IdWatermark.AFTER + "']}") Long after,
+                                                       @Value("#{jobExecutionContext['" + IdWatermark.TO + "']}") Long to) {
+        return personItemReaderFactory.create("personItemReader", after == null ? null : after + 1, to);
     }
 
+    /**
+     * With {@code batch.incremental.enabled} every run only processes the rows added since the last
+     * completed run, see {@link IdWatermark}.
+     */
     @Bean
-    public Job processPersonJob(JobRepository jobRepository, @Qualifier("stepPersonChunk") Step step) {
+    public Job processPersonJob(JobRepository jobRepository, @Qualifier("stepPersonChunk") Step step,
+                                IdWatermark personWatermark, @Qualifier("advanceWatermarkStep") Step advanceWatermarkStep,
+                                @Value("${batch.incremental.enabled:false}") boolean incremental) {
+        if (incremental) {
+            return new JobBuilder("processPersonJob", jobRepository)
+                    .listener(personWatermark)
+                    .start(step)
+                    .next(advanceWatermarkStep)
+                    .build();
+        }
         return new JobBuilder("processPersonJob", jobRepository)
                 .start(step)
                 .build();
     }
 
     @Bean
-    public Step stepPersonChunk(JobRepository jobRepository, PlatformTransactionManager transactionManager) {
-        return new StepBuilder("stepPersonChunk", jobRepository)
-                .<Person, PersonAfterProcess>chunk(10, transactionManager)
-                .reader(reader())
+    public Step stepPersonChunk(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                @Qualifier("reader") AbstractIdRangeItemReader<PersonRow> reader,
+                                ChunkSizePolicyFactory chunkSizePolicyFactory,
+                                ChunkMetricsListener chunkMetricsListener,
+                                @Value("${batch.simple.async.enabled:false}") boolean asyncProcessing,
+                                @Value("${batch.simple.async.concurrency:64}") int concurrency) {
+        AdaptiveChunkSizePolicy chunkSizePolicy = chunkSizePolicyFactory.create(10);
+        if (asyncProcessing) {
+            return chunkMetricsListener.register(new StepBuilder("stepPersonChunk", jobRepository)
+                    .<PersonRow, Future<PersonAfterProcess>>chunk(chunkSizePolicy, transactionManager)
+                    .reader(reader)
+                    .processor(asyncPersonProcessor(concurrency))
+                    .writer(asyncPersonWriter())
+                    .listener(chunkSizePolicy))
+                    .build();
+        }
+        return chunkMetricsListener.register(new StepBuilder("stepPersonChunk", jobRepository)
+                .<PersonRow, PersonAfterProcess>chunk(chunkSizePolicy, transactionManager)
+                .reader(reader)
                 .processor(personProcessor)
-                .writer(writer())
+                .writer(personAfterProcessWriter)
+                .listener(chunkSizePolicy))
                 .build();
     }
+
+    /**
+     * Runs the processor for every item of a chunk at once, each on its own virtual thread,
+     * with at most {@code concurrency} in flight. The processor runs outside the chunk
+     * transaction, so it must not write anything itself.
+     */
+    private AsyncItemProcessor<PersonRow, PersonAfterProcess> asyncPersonProcessor(int concurrency) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("person-processor-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrency);
+        AsyncItemProcessor<PersonRow, PersonAfterProcess> processor = new AsyncItemProcessor<>();
+        processor.setDelegate(personProcessor);
+        processor.setTaskExecutor(executor);
+        return processor;
+    }
+
+    /**
+     * Waits for the chunk's results in read order and hands them to the JDBC writer inside
+     * the chunk transaction. A failed item fails the chunk, which is rolled back and, on
+     * restart, read again from the last committed id.
+     */
+    private AsyncItemWriter<PersonAfterProcess> asyncPersonWriter() {
+        AsyncItemWriter<PersonAfterProcess> writer = new AsyncItemWriter<>();
+        writer.setDelegate(personAfterProcessWriter);
+        return writer;
+    }
+
     @Bean
     public Step taskletStep(JobRepository jobRepository, PlatformTransactionManager transactionManager) {
         return new StepBuilder("taskletStep" , jobRepository)
@@ -1,24 +1,16 @@
 package kia.example.springbatch.simple;
 
-import kia.example.springbatch.model.Person;
 import kia.example.springbatch.model.PersonAfterProcess;
-import kia.example.springbatch.model.PersonAfterProcessRepository;
+import kia.example.springbatch.model.PersonRow;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.stereotype.Component;
 
 @Component
-public class PersonProcessor implements ItemProcessor<Person, PersonAfterProcess> {
-    private final PersonAfterProcessRepository repository;
-
-    public PersonProcessor(PersonAfterProcessRepository repository) {
-        this.repository = repository;
-    }
+public class PersonProcessor implements ItemProcessor<PersonRow, PersonAfterProcess> {
 
     @Override
-    public PersonAfterProcess process(Person person) {
-        // Combine firstName and lastName into fullName
-        var item = new PersonAfterProcess(person.getFirstName() + " " + person.getLastName());
-        return repository.save(item) ;
-
+    public PersonAfterProcess process(PersonRow person) {
+        // Combine firstName and lastName into fullName, persisting is left to the writer
+        return new PersonAfterProcess(person.firstName() + " " + person.lastName());
     }
 }
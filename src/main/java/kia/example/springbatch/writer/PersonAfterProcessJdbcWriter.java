@@ -0,0 +1,49 @@
+package kia.example.springbatch.writer;
+
+import kia.example.springbatch.id.PooledIdAllocator;
+import kia.example.springbatch.model.PersonAfterProcess;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Writes a whole chunk of {@link PersonAfterProcess} as a single JDBC batch.
+ * Ids are taken from the in-memory block of {@link PooledIdAllocator}, so the processor
+ * only has to build the object, no row waits for a generated key and nothing goes through
+ * the persistence context.
+ */
+@Component
+public class PersonAfterProcessJdbcWriter implements ItemWriter<PersonAfterProcess> {
+
+    static final String INSERT_SQL = "INSERT INTO person_after_process (id, name) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PooledIdAllocator ids;
+
+    public PersonAfterProcessJdbcWriter(JdbcTemplate jdbcTemplate, PooledIdAllocator personAfterProcessIds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ids = personAfterProcessIds;
+    }
+
+    @Override
+    public void write(Chunk<? extends PersonAfterProcess> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<? extends PersonAfterProcess> items = chunk.getItems();
+        for (PersonAfterProcess item : items) {
+            if (item.getId() == null) {
+                item.setId(ids.nextId());
+            }
+        }
+        // one round trip per chunk instead of one insert (plus a merge) per item
+        jdbcTemplate.batchUpdate(INSERT_SQL, items, items.size(),
+                (ps, item) -> {
+                    ps.setLong(1, item.getId());
+                    ps.setString(2, item.getName());
+                });
+    }
+}
@@ -5,6 +5,17 @@ CREATE TABLE person
     last_name  VARCHAR(50)
 );
 
+-- ids of person_after_process, one NEXT VALUE reserves the block of 1000 ids ending with it
+-- (PersonAfterProcess.ID_BLOCK_SIZE); starting at the block size makes the first block 1..1000
+CREATE SEQUENCE person_after_process_seq START WITH 1000 INCREMENT BY 1000;
+
+-- highest person id each incremental job has processed (IdWatermark)
+CREATE TABLE batch_watermark
+(
+    job_name VARCHAR(100) PRIMARY KEY,
+    last_id  BIGINT NOT NULL
+);
+
 CREATE TABLE BATCH_JOB_INSTANCE
 (
     JOB_INSTANCE_ID BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -0,0 +1,37 @@
+package kia.example.springbatch;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test rows in {@code person}, with ids from {@link #FIRST_ID} on, far above the rows {@code schema.sql}
+ * inserts, so a test can remove exactly its own rows again.
+ */
+public final class PersonFixture {
+
+    public static final long FIRST_ID = 1_000_000_000L;
+
+    private static final int BATCH = 10_000;
+
+    private PersonFixture() {
+    }
+
+    /**
+     * Inserts {@code count} rows with ids {@code FIRST_ID + from} on, named {@code first<n> last<n>}.
+     */
+    public static void insert(JdbcTemplate jdbcTemplate, long from, int count) {
+        for (int batchStart = 0; batchStart < count; batchStart += BATCH) {
+            List<Object[]> rows = new ArrayList<>();
+            for (long n = from + batchStart; n < from + Math.min(count, batchStart + BATCH); n++) {
+                rows.add(new Object[]{FIRST_ID + n, "first" + n, "last" + n});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO person (id, first_name, last_name) VALUES (?, ?, ?)", rows);
+        }
+    }
+
+    public static void deleteAll(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("DELETE FROM person WHERE id >= ?", FIRST_ID);
+    }
+}
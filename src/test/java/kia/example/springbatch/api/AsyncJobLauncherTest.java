@@ -0,0 +1,98 @@
+package kia.example.springbatch.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * With one thread and one queue slot per job, launches must return while the job is still running,
+ * the third one must be rejected without creating an execution, and the slots must be free again
+ * once the jobs finished.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:asyncJobLauncher")
+class AsyncJobLauncherTest {
+
+    @Autowired
+    private JobRepository jobRepository;
+    @Autowired
+    private JobExplorer jobExplorer;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private AsyncJobLauncher launcher;
+
+    @BeforeEach
+    void createLauncher() {
+        launcher = new AsyncJobLauncher(jobRepository, 1, 1);
+    }
+
+    @AfterEach
+    void shutDown() {
+        release.countDown();
+        launcher.destroy();
+    }
+
+    @Test
+    void admitsOneRunningAndOneQueuedLaunchPerJob() throws Exception {
+        Job job = blockingJob();
+
+        JobExecution running = launcher.launch(job, parameters());
+        JobExecution queued = launcher.launch(job, parameters());
+        assertThatThrownBy(() -> launcher.launch(job, parameters()))
+                .isInstanceOf(JobLaunchRejectedException.class);
+        assertThat(jobExplorer.getJobInstanceCount(job.getName())).isEqualTo(2);
+
+        assertThat(jobExplorer.getJobExecution(queued.getId()).getStatus()).isEqualTo(BatchStatus.STARTING);
+        release.countDown();
+        awaitCompleted(running);
+        awaitCompleted(queued);
+
+        awaitCompleted(launcher.launch(job, parameters()));
+    }
+
+    private Job blockingJob() {
+        return new JobBuilder("blocking-" + UUID.randomUUID(), jobRepository)
+                .start(new StepBuilder("wait", jobRepository)
+                        .tasklet((contribution, chunkContext) -> {
+                            release.await();
+                            return RepeatStatus.FINISHED;
+                        }, transactionManager)
+                        .build())
+                .build();
+    }
+
+    private void awaitCompleted(JobExecution execution) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        BatchStatus status;
+        while ((status = jobExplorer.getJobExecution(execution.getId()).getStatus()) != BatchStatus.COMPLETED
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(status).isEqualTo(BatchStatus.COMPLETED);
+    }
+
+    private static JobParameters parameters() {
+        return new JobParametersBuilder().addString("run", UUID.randomUUID().toString()).toJobParameters();
+    }
+}
@@ -0,0 +1,140 @@
+package kia.example.springbatch.id;
+
+import kia.example.springbatch.model.PersonAfterProcess;
+import kia.example.springbatch.model.PersonAfterProcessRepository;
+import kia.example.springbatch.writer.PersonAfterProcessJdbcWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rows per second inserted by {@code bench.threads} parallel writers, committing every
+ * {@code bench.chunk} rows, with three ways of getting the id:
+ * <ul>
+ *     <li>{@code identity}: one insert per row and a generated-key fetch, what {@code GenerationType.IDENTITY} forces;</li>
+ *     <li>{@code sequence per row}: one {@code NEXT VALUE} per row, then a batched insert;</li>
+ *     <li>{@code pooled}: {@link PersonAfterProcessJdbcWriter} with ids from {@link PooledIdAllocator} blocks.</li>
+ * </ul>
+ * Run with {@code mvn test -Pbenchmark [-Dbench.rows=100000] [-Dbench.threads=4] [-Dbench.chunk=100]}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class PooledIdAllocatorBenchmark {
+
+    private static final int ROWS = Integer.getInteger("bench.rows", 100_000);
+    private static final int THREADS = Integer.getInteger("bench.threads", 4);
+    private static final int CHUNK = Integer.getInteger("bench.chunk", 100);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private PersonAfterProcessJdbcWriter pooledWriter;
+    @Autowired
+    private PersonAfterProcessRepository repository;
+
+    @BeforeEach
+    void createTables() {
+        jdbcTemplate.execute("CREATE TABLE bench_identity (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE bench_sequence (id BIGINT PRIMARY KEY, name VARCHAR(255))");
+        jdbcTemplate.execute("CREATE SEQUENCE bench_sequence_seq");
+    }
+
+    @AfterEach
+    void dropTables() {
+        jdbcTemplate.execute("DROP TABLE bench_identity");
+        jdbcTemplate.execute("DROP TABLE bench_sequence");
+        jdbcTemplate.execute("DROP SEQUENCE bench_sequence_seq");
+        jdbcTemplate.update("DELETE FROM person_after_process");
+    }
+
+    @Test
+    void compareIdStrategies() throws Exception {
+        ChunkWriter identity = chunk -> {
+            for (PersonAfterProcess item : chunk) {
+                jdbcTemplate.update(connection -> {
+                    PreparedStatement ps = connection.prepareStatement(
+                            "INSERT INTO bench_identity (name) VALUES (?)", Statement.RETURN_GENERATED_KEYS);
+                    ps.setString(1, item.getName());
+                    return ps;
+                }, new GeneratedKeyHolder());
+            }
+        };
+        ChunkWriter sequencePerRow = chunk -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (PersonAfterProcess item : chunk) {
+                rows.add(new Object[]{jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR bench_sequence_seq", Long.class), item.getName()});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO bench_sequence (id, name) VALUES (?, ?)", rows);
+        };
+        ChunkWriter pooled = chunk -> pooledWriter.write(new Chunk<>(chunk));
+
+        // warm up all three paths before measuring
+        run(identity);
+        run(sequencePerRow);
+        run(pooled);
+        jdbcTemplate.update("DELETE FROM bench_identity");
+        jdbcTemplate.update("DELETE FROM bench_sequence");
+        jdbcTemplate.update("DELETE FROM person_after_process");
+
+        double identityRate = run(identity);
+        double sequenceRate = run(sequencePerRow);
+        double pooledRate = run(pooled);
+        System.out.printf("rows=%d threads=%d chunk=%d rows/s: identity %.0f, sequence per row %.0f, pooled %.0f (%.1fx identity)%n",
+                ROWS, THREADS, CHUNK, identityRate, sequenceRate, pooledRate, pooledRate / identityRate);
+
+        // the JDBC writers and JPA share the sequence without handing out an id twice
+        repository.saveAll(List.of(new PersonAfterProcess("jpa 1"), new PersonAfterProcess("jpa 2")));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT id) FROM person_after_process", Long.class))
+                .isEqualTo(ROWS + 2L);
+        assertThat(pooledRate).isGreaterThan(identityRate);
+    }
+
+    private double run(ChunkWriter writer) throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        long started = System.nanoTime();
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            results.add(threads.submit(() -> {
+                for (int from = thread * CHUNK; from < ROWS; from += THREADS * CHUNK) {
+                    List<PersonAfterProcess> chunk = new ArrayList<>();
+                    for (int i = from; i < Math.min(ROWS, from + CHUNK); i++) {
+                        chunk.add(new PersonAfterProcess("first" + i + " last" + i));
+                    }
+                    transaction.executeWithoutResult(status -> writer.write(chunk));
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        threads.shutdown();
+        return ROWS / seconds;
+    }
+
+    private interface ChunkWriter {
+        void write(List<PersonAfterProcess> chunk);
+    }
+}
@@ -0,0 +1,102 @@
+package kia.example.springbatch.incremental;
+
+import kia.example.springbatch.PersonFixture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs each incremental job over a large table, then again after a few rows were added, and once more
+ * with nothing new: the later runs must read only the added rows, and the watermark must end at the
+ * highest id.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:incremental", "batch.incremental.enabled=true"})
+class IncrementalJobTest {
+
+    private static final int ROWS = 20_000;
+    private static final int ADDED = 100;
+
+    @Autowired
+    private JobLauncher jobLauncher;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private IdWatermark personWatermark;
+    @Autowired
+    @Qualifier("processPersonJob")
+    private Job processPersonJob;
+    @Autowired
+    @Qualifier("partitionedJob")
+    private Job partitionedJob;
+
+    @AfterEach
+    void cleanUp() {
+        PersonFixture.deleteAll(jdbcTemplate);
+        jdbcTemplate.update("DELETE FROM person_after_process");
+        jdbcTemplate.update("DELETE FROM batch_watermark");
+    }
+
+    @Test
+    void processPersonJobReadsOnlyNewRows() throws Exception {
+        assertIncremental(processPersonJob, "stepPersonChunk");
+    }
+
+    @Test
+    void partitionedJobSplitsOnlyNewRows() throws Exception {
+        assertIncremental(partitionedJob, "masterStep");
+    }
+
+    private void assertIncremental(Job job, String stepName) throws Exception {
+        PersonFixture.insert(jdbcTemplate, 0, ROWS);
+        long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person", Long.class);
+
+        JobExecution full = run(job);
+        assertThat(readCount(full, stepName)).isEqualTo(total);
+
+        PersonFixture.insert(jdbcTemplate, ROWS, ADDED);
+        JobExecution incremental = run(job);
+        assertThat(readCount(incremental, stepName)).isEqualTo(ADDED);
+
+        JobExecution empty = run(job);
+        assertThat(readCount(empty, stepName)).isZero();
+
+        System.out.printf("%s: %d rows in %d ms, %d new rows in %d ms, nothing new in %d ms%n", job.getName(),
+                total, millis(full), ADDED, millis(incremental), millis(empty));
+        assertThat(personWatermark.lastId(job.getName())).isEqualTo(PersonFixture.FIRST_ID + ROWS + ADDED - 1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person_after_process", Long.class))
+                .isEqualTo(total + ADDED);
+    }
+
+    private JobExecution run(Job job) throws Exception {
+        JobExecution execution = jobLauncher.run(job, new JobParametersBuilder()
+                .addString("run", UUID.randomUUID().toString())
+                .toJobParameters());
+        assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        return execution;
+    }
+
+    private static long readCount(JobExecution execution, String stepName) {
+        return execution.getStepExecutions().stream()
+                .filter(step -> step.getStepName().equals(stepName))
+                .mapToLong(StepExecution::getReadCount)
+                .sum();
+    }
+
+    private static long millis(JobExecution execution) {
+        return Duration.between(execution.getStartTime(), execution.getEndTime()).toMillis();
+    }
+}
@@ -0,0 +1,86 @@
+package kia.example.springbatch.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import kia.example.springbatch.PersonFixture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs a plain and a partitioned job and checks the meters they leave: chunk timers per job, step
+ * and partition, and item counters that add up to the rows written.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:chunkMetrics")
+class ChunkMetricsListenerTest {
+
+    private static final String[] TIMERS = {"batch.chunk.read", "batch.chunk.process", "batch.chunk.write", "batch.chunk.commit"};
+
+    @Autowired
+    private JobLauncher jobLauncher;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    @Qualifier("processPersonJob")
+    private Job processPersonJob;
+    @Autowired
+    @Qualifier("partitionedJob")
+    private Job partitionedJob;
+
+    @AfterEach
+    void cleanUp() {
+        PersonFixture.deleteAll(jdbcTemplate);
+        jdbcTemplate.update("DELETE FROM person_after_process");
+    }
+
+    @Test
+    void tagsChunkMetersByJobStepAndPartition() throws Exception {
+        PersonFixture.insert(jdbcTemplate, 0, 500);
+        long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person", Long.class);
+
+        run(processPersonJob);
+        run(partitionedJob);
+
+        for (String timer : TIMERS) {
+            assertThat(timer(timer, "processPersonJob", "stepPersonChunk", "none").count()).isPositive();
+            assertThat(timer(timer, "partitionedJob", "workerStep", "partition0").count()).isPositive();
+            assertThat(timer(timer, "partitionedJob", "workerStep", "partition1").count()).isPositive();
+        }
+        assertThat(written("processPersonJob")).isEqualTo(total);
+        assertThat(written("partitionedJob")).isEqualTo(total);
+        assertThat(meterRegistry.get("batch.items").tag("job", "partitionedJob").tag("outcome", "read")
+                .counters().stream().mapToDouble(Counter::count).sum()).isEqualTo(total);
+    }
+
+    private void run(Job job) throws Exception {
+        JobExecution execution = jobLauncher.run(job, new JobParametersBuilder()
+                .addString("run", UUID.randomUUID().toString())
+                .addLong("gridSize", 2L)
+                .toJobParameters());
+        assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+    }
+
+    private Timer timer(String name, String job, String step, String partition) {
+        return meterRegistry.get(name).tag("job", job).tag("step", step).tag("partition", partition).timer();
+    }
+
+    private double written(String job) {
+        return meterRegistry.get("batch.items").tag("job", job).tag("outcome", "written")
+                .counters().stream().mapToDouble(Counter::count).sum();
+    }
+}
@@ -0,0 +1,110 @@
+package kia.example.springbatch.partitioning;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Splits a skewed key column (a dense block followed by sparse keys) and checks that the ranges
+ * hold the same number of rows and cover the keys without gaps or overlaps.
+ */
+class ColumnRangePartitionerTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private ColumnRangePartitioner partitioner;
+
+    @BeforeEach
+    void createTable() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(UUID.randomUUID().toString())
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE item (id BIGINT PRIMARY KEY)");
+        partitioner = new ColumnRangePartitioner(database, "item", "id");
+    }
+
+    @AfterEach
+    void dropTable() {
+        database.shutdown();
+    }
+
+    @Test
+    void splitsSkewedKeysIntoEqualRowCounts() {
+        insert(1, 1_000, 1);          // 1..1000
+        insert(2_000, 1_000, 1_000);  // 2000, 3000, ... 1001000
+
+        List<ExecutionContext> ranges = ranges(partitioner.partition(4));
+
+        assertThat(ranges).hasSize(4).allSatisfy(range -> assertThat(range.getLong("rowCount")).isEqualTo(500));
+        assertThat(ranges.get(0).getLong("start")).isEqualTo(1);
+        assertThat(ranges.get(3).getLong("end")).isEqualTo(1_001_000);
+        assertContiguous(ranges);
+        assertThat(ranges).allSatisfy(range -> assertThat(count(range)).isEqualTo(500));
+    }
+
+    @Test
+    void coversTheWholeWindowOfAnIncrementalRun() {
+        insert(1, 100, 1);
+        partitioner.setRange(20L, 150L);
+
+        List<ExecutionContext> ranges = ranges(partitioner.partition(4));
+
+        assertThat(ranges).hasSize(4);
+        assertThat(ranges.get(0).getLong("start")).isEqualTo(21);
+        assertThat(ranges.get(3).getLong("end")).isEqualTo(150);
+        assertContiguous(ranges);
+        assertThat(ranges.stream().mapToLong(range -> range.getLong("rowCount")).sum()).isEqualTo(80);
+    }
+
+    @Test
+    void givesOnePartitionPerRowForSmallTablesAndOneEmptyOneForNone() {
+        assertThat(ranges(partitioner.partition(4))).singleElement()
+                .satisfies(range -> assertThat(range.getLong("rowCount")).isZero());
+
+        insert(10, 2, 10);
+        List<ExecutionContext> ranges = ranges(partitioner.partition(4));
+        assertThat(ranges).hasSize(2).allSatisfy(range -> assertThat(range.getLong("rowCount")).isEqualTo(1));
+        assertContiguous(ranges);
+    }
+
+    private void insert(long first, int count, long step) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{first + i * step});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO item (id) VALUES (?)", rows);
+    }
+
+    private long count(ExecutionContext range) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item WHERE id BETWEEN ? AND ?", Long.class,
+                range.getLong("start"), range.getLong("end"));
+    }
+
+    private static List<ExecutionContext> ranges(Map<String, ExecutionContext> partitions) {
+        List<ExecutionContext> ranges = new ArrayList<>();
+        for (int i = 0; i < partitions.size(); i++) {
+            ranges.add(partitions.get("partition" + i));
+        }
+        return ranges;
+    }
+
+    private static void assertContiguous(List<ExecutionContext> ranges) {
+        for (int i = 1; i < ranges.size(); i++) {
+            assertThat(ranges.get(i).getLong("start")).isEqualTo(ranges.get(i - 1).getLong("end") + 1);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package kia.example.springbatch.partitioning;
+
+import kia.example.springbatch.PersonFixture;
+import kia.example.springbatch.model.PersonAfterProcess;
+import kia.example.springbatch.writer.PersonAfterProcessJdbcWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.item.Chunk;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Kills a partitioned run in the middle of one partition (the writer fails on a poison row) and
+ * restarts it: the failed partition has to continue after its last committed id, and the completed
+ * partitions must not run again, so no committed row is read a second time.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:partitionRestart")
+class PartitionRestartTest {
+
+    private static final int ROWS = 4_000;
+    private static final long POISON_ID = PersonFixture.FIRST_ID + 2_500;
+
+    @Autowired
+    private JobLauncher jobLauncher;
+    @Autowired
+    private JobExplorer jobExplorer;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    @Qualifier("partitionedJob")
+    private Job partitionedJob;
+    @Autowired
+    @Qualifier("partitionedJobIntegration")
+    private Job partitionedJobIntegration;
+    @MockitoSpyBean
+    private PersonAfterProcessJdbcWriter writer;
+
+    private volatile boolean crash;
+
+    @BeforeEach
+    void seed() throws Exception {
+        PersonFixture.insert(jdbcTemplate, 0, ROWS);
+        jdbcTemplate.update("UPDATE person SET first_name = 'poison' WHERE id = ?", POISON_ID);
+        doAnswer(invocation -> {
+            Chunk<? extends PersonAfterProcess> chunk = invocation.getArgument(0);
+            if (crash && chunk.getItems().stream().anyMatch(item -> item.getName().startsWith("poison"))) {
+                throw new IllegalStateException("simulated crash at id " + POISON_ID);
+            }
+            return invocation.callRealMethod();
+        }).when(writer).write(any());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        PersonFixture.deleteAll(jdbcTemplate);
+        jdbcTemplate.update("DELETE FROM person_after_process");
+    }
+
+    @Test
+    void partitionedJobResumesFromLastCommittedId() throws Exception {
+        assertResumes(partitionedJob);
+    }
+
+    @Test
+    void partitionedJobIntegrationResumesFromLastCommittedId() throws Exception {
+        assertResumes(partitionedJobIntegration);
+    }
+
+    private void assertResumes(Job job) throws Exception {
+        long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person", Long.class);
+        JobParameters parameters = new JobParametersBuilder()
+                .addLong(PartitionGridSize.JOB_PARAMETER, 4L)
+                .addString("run", UUID.randomUUID().toString())
+                .toJobParameters();
+
+        crash = true;
+        JobExecution failed = jobLauncher.run(job, parameters);
+        assertThat(failed.getStatus()).isEqualTo(BatchStatus.FAILED);
+        Map<String, StepExecution> firstRun = partitionsOf(failed);
+        long committed = firstRun.values().stream().mapToLong(StepExecution::getWriteCount).sum();
+        long committedInFailed = firstRun.values().stream()
+                .filter(partition -> partition.getStatus() == BatchStatus.FAILED)
+                .mapToLong(StepExecution::getWriteCount).sum();
+        assertThat(committedInFailed).as("the crash hit a partition after some of it was committed").isPositive();
+
+        crash = false;
+        JobExecution restarted = jobLauncher.run(job, parameters);
+        assertThat(restarted.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        Map<String, StepExecution> secondRun = partitionsOf(restarted);
+        assertThat(secondRun.keySet()).as("only the failed partitions run again")
+                .isEqualTo(firstRun.values().stream()
+                        .filter(partition -> partition.getStatus() != BatchStatus.COMPLETED)
+                        .map(StepExecution::getStepName)
+                        .collect(Collectors.toSet()));
+
+        long reread = secondRun.values().stream().mapToLong(StepExecution::getReadCount).sum() - (total - committed);
+        System.out.printf("%s: %d of %d rows committed before the crash, %d re-read on restart (%d from the partition start)%n",
+                job.getName(), committed, total, reread, committedInFailed);
+        assertThat(reread).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person_after_process", Long.class)).isEqualTo(total);
+    }
+
+    private Map<String, StepExecution> partitionsOf(JobExecution execution) {
+        return jobExplorer.getJobExecution(execution.getId()).getStepExecutions().stream()
+                .filter(step -> step.getStepName().contains(":partition"))
+                .collect(Collectors.toMap(StepExecution::getStepName, Function.identity()));
+    }
+}
@@ -0,0 +1,70 @@
+package kia.example.springbatch.partitioning;
+
+import kia.example.springbatch.PersonFixture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@code partitionedJob} in {@code sql} mode over partitions spanning several id blocks: every
+ * source row must be inserted exactly once, with the processor's name and an id of its own, and the
+ * partitions must report the inserted rows as read and written.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:sqlPushdown", "batch.partition.mode=sql"})
+class SqlPushdownTaskletTest {
+
+    private static final int ROWS = 5_000;
+
+    @Autowired
+    private JobLauncher jobLauncher;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    @Qualifier("partitionedJob")
+    private Job partitionedJob;
+
+    @AfterEach
+    void cleanUp() {
+        PersonFixture.deleteAll(jdbcTemplate);
+        jdbcTemplate.update("DELETE FROM person_after_process");
+    }
+
+    @Test
+    void insertsEveryRowOnceWithItsOwnId() throws Exception {
+        PersonFixture.insert(jdbcTemplate, 0, ROWS);
+        long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person", Long.class);
+
+        JobExecution execution = jobLauncher.run(partitionedJob, new JobParametersBuilder()
+                .addString("run", UUID.randomUUID().toString())
+                .addLong("gridSize", 3L)
+                .toJobParameters());
+
+        assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person_after_process", Long.class))
+                .isEqualTo(total);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT id) FROM person_after_process", Long.class))
+                .isEqualTo(total);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM person_after_process WHERE name IN ('first0 last0', 'first4999 last4999')", Long.class))
+                .isEqualTo(2);
+
+        StepExecution manager = execution.getStepExecutions().stream()
+                .filter(step -> step.getStepName().equals("masterStep"))
+                .findFirst().orElseThrow();
+        assertThat(manager.getReadCount()).isEqualTo(total);
+        assertThat(manager.getWriteCount()).isEqualTo(total);
+    }
+}
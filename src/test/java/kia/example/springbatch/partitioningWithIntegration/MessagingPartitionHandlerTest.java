@@ -0,0 +1,110 @@
+package kia.example.springbatch.partitioningWithIntegration;
+
+import kia.example.springbatch.PersonFixture;
+import kia.example.springbatch.partitioning.ColumnRangePartitioner;
+import kia.example.springbatch.partitioning.PartitionGridSize;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.integration.partition.StepExecutionRequest;
+import org.springframework.batch.integration.partition.StepExecutionRequestHandler;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.MessageChannel;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The manager of {@code partitionedJobIntegration} must not wait for the timeout when a worker fails
+ * without replying, nor when the partitions finished but their replies were lost.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:messagingPartitionHandler")
+class MessagingPartitionHandlerTest {
+
+    private static final long TIMEOUT_MILLIS = 60_000;
+
+    @Autowired
+    private JobLauncher jobLauncher;
+    @Autowired
+    private JobRepository jobRepository;
+    @Autowired
+    private JobExplorer jobExplorer;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PartitionGridSize partitionGridSize;
+    @Autowired
+    @Qualifier("partitionerIntegration")
+    private ColumnRangePartitioner partitioner;
+    @Autowired
+    @Qualifier("requests")
+    private MessageChannel requests;
+    @Autowired
+    private StepExecutionRequestHandler stepExecutionRequestHandler;
+
+    @AfterEach
+    void cleanUp() {
+        PersonFixture.deleteAll(jdbcTemplate);
+        jdbcTemplate.update("DELETE FROM person_after_process");
+    }
+
+    @Test
+    void failsAtOnceWhenAWorkerFailsWithoutReplying() throws Exception {
+        JobExecution execution = run(new MessagingPartitionHandler(requests, "noSuchStep", partitionGridSize,
+                jobExplorer, 100, TIMEOUT_MILLIS));
+
+        assertThat(execution.getStatus()).isEqualTo(BatchStatus.FAILED);
+        assertThat(execution.getAllFailureExceptions())
+                .anySatisfy(failure -> assertThat(failure).hasRootCauseInstanceOf(NoSuchBeanDefinitionException.class));
+        assertThat(millis(execution)).isLessThan(TIMEOUT_MILLIS);
+    }
+
+    @Test
+    void returnsTheStoredResultsWhenTheRepliesAreLost() throws Exception {
+        PersonFixture.insert(jdbcTemplate, 0, 1_000);
+        long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person", Long.class);
+        DirectChannel noReplies = new DirectChannel();
+        noReplies.subscribe(message -> stepExecutionRequestHandler.handle((StepExecutionRequest) message.getPayload()));
+
+        JobExecution execution = run(new MessagingPartitionHandler(noReplies, "workerStepIntegration", partitionGridSize,
+                jobExplorer, 100, TIMEOUT_MILLIS));
+
+        assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(execution.getStepExecutions().stream()
+                .filter(step -> step.getStepName().equals("managerStep"))
+                .findFirst().orElseThrow().getWriteCount()).isEqualTo(total);
+        assertThat(millis(execution)).isLessThan(TIMEOUT_MILLIS);
+    }
+
+    private JobExecution run(PartitionHandler partitionHandler) throws Exception {
+        return jobLauncher.run(new JobBuilder("messagingPartitionHandler", jobRepository)
+                        .start(new StepBuilder("managerStep", jobRepository)
+                                .partitioner("workerStepIntegration", partitioner)
+                                .partitionHandler(partitionHandler)
+                                .build())
+                        .build(),
+                new JobParametersBuilder()
+                        .addString("run", UUID.randomUUID().toString())
+                        .addLong("gridSize", 3L)
+                        .toJobParameters());
+    }
+
+    private static long millis(JobExecution execution) {
+        return Duration.between(execution.getStartTime(), execution.getEndTime()).toMillis();
+    }
+}
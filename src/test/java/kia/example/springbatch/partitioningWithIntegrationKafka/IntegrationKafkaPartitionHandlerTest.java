@@ -0,0 +1,103 @@
+package kia.example.springbatch.partitioningWithIntegrationKafka;
+
+import kia.example.springbatch.partitioning.PartitionGridSize;
+import kia.example.springbatch.partitioningWithKafka.PartitionRequest;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.StepExecutionSplitter;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.expression.common.LiteralExpression;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.kafka.outbound.KafkaProducerMessageHandler;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The manager step must only complete once the broker acknowledged every partition request sent
+ * through the outbound adapter, and fail if one was not.
+ */
+class IntegrationKafkaPartitionHandlerTest {
+
+    @Test
+    void completesOnceEveryRequestIsAcknowledged() throws Exception {
+        CompletableFuture<SendResult<String, PartitionRequest>> pending = new CompletableFuture<>();
+        IntegrationKafkaPartitionHandler handler = handler(pending);
+        StepExecution manager = manager();
+
+        CompletableFuture<?> handled = CompletableFuture.runAsync(() -> {
+            try {
+                handler.handle(splitter(manager, 3), manager);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(200);
+        assertThat(handled).isNotDone();
+
+        pending.complete(new SendResult<>(null, new RecordMetadata(new TopicPartition("t", 0), 0, 0, 0, 0, 0)));
+        handled.join();
+    }
+
+    @Test
+    void failsWhenARequestIsNotAcknowledged() throws Exception {
+        IntegrationKafkaPartitionHandler handler = handler(CompletableFuture.failedFuture(new TimeoutException("no broker")));
+        StepExecution manager = manager();
+
+        assertThatThrownBy(() -> handler.handle(splitter(manager, 3), manager))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("3 of 3 partition requests were not acknowledged");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static IntegrationKafkaPartitionHandler handler(CompletableFuture<SendResult<String, PartitionRequest>> result) {
+        KafkaTemplate<String, PartitionRequest> template = mock(KafkaTemplate.class);
+        ProducerFactory<String, PartitionRequest> producerFactory = mock(ProducerFactory.class);
+        when(producerFactory.getConfigurationProperties()).thenReturn(Map.of());
+        when(template.getProducerFactory()).thenReturn(producerFactory);
+        when(template.send(any(ProducerRecord.class))).thenReturn(result);
+        DirectChannel toKafka = new DirectChannel();
+        DirectChannel sendFutures = new DirectChannel();
+        KafkaProducerMessageHandler<String, PartitionRequest> adapter = new KafkaProducerMessageHandler<>(template);
+        adapter.setTopicExpression(new LiteralExpression("batch-partitions-kafka"));
+        adapter.setFuturesChannel(sendFutures);
+        adapter.setBeanFactory(new DefaultListableBeanFactory());
+        adapter.afterPropertiesSet();
+        toKafka.subscribe(adapter);
+
+        PartitionGridSize gridSize = mock(PartitionGridSize.class);
+        when(gridSize.resolve(any())).thenReturn(3);
+        return new IntegrationKafkaPartitionHandler(toKafka, sendFutures, gridSize);
+    }
+
+    private static StepExecution manager() {
+        return new StepExecution("masterIntegrationKafkaStep", new JobExecution(1L), 1L);
+    }
+
+    private static StepExecutionSplitter splitter(StepExecution manager, int partitions) throws Exception {
+        Set<StepExecution> split = new LinkedHashSet<>();
+        for (long id = 2; id < 2 + partitions; id++) {
+            split.add(new StepExecution("workerIntegrationKafkaStep:partition" + id, manager.getJobExecution(), id));
+        }
+        StepExecutionSplitter splitter = mock(StepExecutionSplitter.class);
+        when(splitter.split(any(), anyInt())).thenReturn(split);
+        return splitter;
+    }
+}
@@ -0,0 +1,75 @@
+package kia.example.springbatch.partitioningWithIntegrationKafka;
+
+import kia.example.springbatch.partitioningWithKafka.PartitionRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.integration.core.Pausable;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A batch whose job could not be launched must not be acknowledged until a retry launched it, and
+ * the batch after it not before either.
+ */
+class PartitionIntegrationConsumerConfigTest {
+
+    private PartitionIntegrationConsumerConfig consumer;
+
+    @AfterEach
+    void shutDown() {
+        consumer.destroy();
+    }
+
+    @Test
+    void retriesAFailedLaunchBeforeAcknowledging() throws Exception {
+        AtomicInteger launches = new AtomicInteger();
+        JobLauncher jobLauncher = mock(JobLauncher.class);
+        when(jobLauncher.run(any(), any())).thenAnswer(invocation -> {
+            if (launches.incrementAndGet() <= 2) {
+                throw new TaskRejectedException("repository unavailable");
+            }
+            return new JobExecution(1L);
+        });
+        consumer = new PartitionIntegrationConsumerConfig(jobLauncher, mock(Job.class),
+                new StaticListableBeanFactory().getBeanProvider(Pausable.class), 1, 1, 4, 50);
+
+        CountDownLatch acknowledged = new CountDownLatch(2);
+        AtomicInteger acknowledgedBeforeLaunch = new AtomicInteger();
+        Acknowledgment acknowledgment = () -> {
+            if (launches.get() < 3) {
+                acknowledgedBeforeLaunch.incrementAndGet();
+            }
+            acknowledged.countDown();
+        };
+
+        consumer.handlePartitions(MessageBuilder.withPayload(List.of(request(1)))
+                .setHeader(KafkaHeaders.ACKNOWLEDGMENT, acknowledgment).build());
+        consumer.handlePartitions(MessageBuilder.withPayload(List.<PartitionRequest>of())
+                .setHeader(KafkaHeaders.ACKNOWLEDGMENT, acknowledgment).build());
+
+        assertThat(acknowledged.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(launches).hasValue(3);
+        assertThat(acknowledgedBeforeLaunch).hasValue(0);
+    }
+
+    private static PartitionRequest request(long stepExecutionId) {
+        return new PartitionRequest(1, stepExecutionId, "partition" + stepExecutionId, Map.of("start", 1L));
+    }
+}
@@ -0,0 +1,212 @@
+package kia.example.springbatch.partitioningWithKafka;
+
+import kia.example.springbatch.PersonFixture;
+import kia.example.springbatch.partitioning.PartitionGridSize;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end throughput of the two Kafka partitioned jobs, {@code partitionJobWithKafka} and
+ * {@code partitionedJobIntegrationKafka}: partitions completed per second and the latency from
+ * a partition being created (dispatched) to its worker finishing, as p50/p95/p99/max.
+ * <p>
+ * Starts an in-process KRaft broker unless {@code bench.bootstrap-servers} points at a real
+ * cluster (whose topics then need at least {@code bench.consumers} partitions).
+ * Run with {@code mvn test -Pbenchmark -Dtest=KafkaJobsBenchmark [-Dbench.partitions=16]
+ * [-Dbench.consumers=4] [-Dbench.rows=10000] [-Dbench.runs=3] [-Dbench.bootstrap-servers=host:9092]}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:kafkabench",
+        "batch.partition.remote.poll-interval-millis=20"
+})
+class KafkaJobsBenchmark {
+
+    private static final int PARTITIONS = Integer.getInteger("bench.partitions", 16);
+    private static final int CONSUMERS = Integer.getInteger("bench.consumers", 4);
+    private static final int ROWS = Integer.getInteger("bench.rows", 10_000);
+    private static final int RUNS = Integer.getInteger("bench.runs", 3);
+    private static final String BOOTSTRAP_SERVERS = System.getProperty("bench.bootstrap-servers");
+    private static final Duration TIMEOUT = Duration.ofMinutes(5);
+
+    private static EmbeddedKafkaKraftBroker broker;
+
+    @Autowired
+    private JobLauncher jobLauncher;
+    @Autowired
+    private JobExplorer jobExplorer;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    @Qualifier("partitionJobWithKafka")
+    private Job partitionJobWithKafka;
+    @Autowired
+    @Qualifier("partitionedJobIntegrationKafka")
+    private Job partitionedJobIntegrationKafka;
+
+    @DynamicPropertySource
+    static void kafka(DynamicPropertyRegistry registry) {
+        if (BOOTSTRAP_SERVERS == null) {
+            broker = new EmbeddedKafkaKraftBroker(1, CONSUMERS, "batch-partitions", "batch-partitions-kafka");
+            broker.afterPropertiesSet();
+        }
+        String bootstrapServers = broker != null ? broker.getBrokersAsString() : BOOTSTRAP_SERVERS;
+        registry.add("spring.kafka.bootstrap-servers", () -> bootstrapServers);
+        registry.add("batch.worker.kafka.concurrency", () -> CONSUMERS);
+        registry.add("batch.worker.kafka.jobs", () -> CONSUMERS);
+        System.out.println("Kafka jobs benchmark against " + bootstrapServers);
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        if (broker != null) {
+            broker.destroy();
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        PersonFixture.insert(jdbcTemplate, 0, ROWS);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        PersonFixture.deleteAll(jdbcTemplate);
+        jdbcTemplate.update("DELETE FROM person_after_process");
+    }
+
+    @Test
+    void partitionsPerSecond() throws Exception {
+        // the first run of each job also waits for the consumer groups to be assigned their partitions
+        runRemotePartitioning();
+        runIntegration();
+        for (int run = 1; run <= RUNS; run++) {
+            report("partitionJobWithKafka", run, runRemotePartitioning());
+            report("partitionedJobIntegrationKafka", run, runIntegration());
+        }
+    }
+
+    /**
+     * The manager step only ends once every worker step ended, so both the completion and the
+     * creation time of each partition are on its step execution.
+     */
+    private Result runRemotePartitioning() throws Exception {
+        JobExecution execution = launch(partitionJobWithKafka);
+        assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        List<StepExecution> partitions = partitionsOf(execution);
+        assertThat(partitions).allMatch(step -> step.getStatus() == BatchStatus.COMPLETED);
+        Map<Long, LocalDateTime> created = new HashMap<>();
+        Map<Long, LocalDateTime> ended = new HashMap<>();
+        partitions.forEach(step -> {
+            created.put(step.getId(), step.getCreateTime());
+            ended.put(step.getId(), step.getEndTime());
+        });
+        return Result.of(execution.getStartTime(), created, ended);
+    }
+
+    /**
+     * The manager step completes as soon as the requests are sent, so completion is the end of the
+     * worker job run for each partition, found by its {@code stepExecutionId} parameter.
+     */
+    private Result runIntegration() throws Exception {
+        JobExecution execution = launch(partitionedJobIntegrationKafka);
+        assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        Map<Long, LocalDateTime> created = new HashMap<>();
+        partitionsOf(execution).forEach(step -> created.put(step.getId(), step.getCreateTime()));
+        assertThat(created).hasSize(expectedPartitions());
+
+        Map<Long, LocalDateTime> ended = new HashMap<>();
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (ended.size() < created.size()) {
+            assertThat(System.nanoTime()).as("worker jobs finished before the timeout").isLessThan(deadline);
+            Thread.sleep(10);
+            jdbcTemplate.query("""
+                            SELECT p.PARAMETER_VALUE, e.END_TIME FROM BATCH_JOB_EXECUTION e
+                            JOIN BATCH_JOB_EXECUTION_PARAMS p ON p.JOB_EXECUTION_ID = e.JOB_EXECUTION_ID
+                            WHERE p.PARAMETER_NAME = 'stepExecutionId' AND e.END_TIME IS NOT NULL""",
+                    rs -> {
+                        long stepExecutionId = Long.parseLong(rs.getString(1));
+                        if (created.containsKey(stepExecutionId)) {
+                            ended.put(stepExecutionId, rs.getTimestamp(2).toLocalDateTime());
+                        }
+                    });
+        }
+        return Result.of(execution.getStartTime(), created, ended);
+    }
+
+    private List<StepExecution> partitionsOf(JobExecution execution) {
+        return jobExplorer.getJobExecution(execution.getId()).getStepExecutions().stream()
+                .filter(step -> step.getStepName().contains(":partition"))
+                .toList();
+    }
+
+    private JobExecution launch(Job job) throws Exception {
+        return jobLauncher.run(job, new JobParametersBuilder()
+                .addLong(PartitionGridSize.JOB_PARAMETER, (long) PARTITIONS)
+                .addString("run", UUID.randomUUID().toString())
+                .toJobParameters());
+    }
+
+    /**
+     * The partitioner gives one partition per row of a smaller table.
+     */
+    private int expectedPartitions() {
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person", Integer.class);
+        return Math.min(PARTITIONS, rows);
+    }
+
+    private static void report(String job, int run, Result result) {
+        System.out.printf("%s run %d: %d partitions, %.1f partitions/s, dispatch-to-completion ms p50 %d p95 %d p99 %d max %d%n",
+                job, run, result.latenciesMillis.length, result.partitionsPerSecond(),
+                result.percentile(50), result.percentile(95), result.percentile(99),
+                result.latenciesMillis[result.latenciesMillis.length - 1]);
+    }
+
+    private record Result(long elapsedMillis, long[] latenciesMillis) {
+
+        static Result of(LocalDateTime start, Map<Long, LocalDateTime> created, Map<Long, LocalDateTime> ended) {
+            long[] latencies = created.keySet().stream()
+                    .mapToLong(id -> Duration.between(created.get(id), ended.get(id)).toMillis())
+                    .toArray();
+            Arrays.sort(latencies);
+            LocalDateTime last = ended.values().stream().max(LocalDateTime::compareTo).orElse(start);
+            return new Result(Math.max(1, Duration.between(start, last).toMillis()), latencies);
+        }
+
+        double partitionsPerSecond() {
+            return latenciesMillis.length * 1000.0 / elapsedMillis;
+        }
+
+        long percentile(int p) {
+            int index = (int) Math.ceil(p / 100.0 * latenciesMillis.length) - 1;
+            return latenciesMillis[Math.max(0, index)];
+        }
+    }
+}
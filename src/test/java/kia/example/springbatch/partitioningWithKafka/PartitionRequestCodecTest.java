@@ -0,0 +1,76 @@
+package kia.example.springbatch.partitioningWithKafka;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PartitionRequestCodecTest {
+
+    @Test
+    void roundTripsEveryContextType() {
+        Map<String, Object> context = new LinkedHashMap<>();
+        context.put("start", 1L);
+        context.put("end", Long.MAX_VALUE);
+        context.put("offset", -42L);
+        context.put("partitionNumber", 7);
+        context.put("min", Integer.MIN_VALUE);
+        context.put("ratio", 0.25);
+        context.put("last", true);
+        context.put("first", false);
+        context.put("table", "person ü€");
+        context.put("", "");
+        PartitionRequest request = new PartitionRequest(123_456_789L, 42L, "workerStep:partition3", context);
+
+        PartitionRequest decoded = PartitionRequestCodec.decode(PartitionRequestCodec.encode(request));
+
+        assertThat(decoded).isEqualTo(request);
+        assertThat(decoded.context().get("partitionNumber")).isInstanceOf(Integer.class);
+        assertThat(decoded.context().get("start")).isInstanceOf(Long.class);
+    }
+
+    @Test
+    void rejectsNewerVersionsAndTruncatedMessages() {
+        byte[] encoded = PartitionRequestCodec.encode(new PartitionRequest(1L, 2L, "step", Map.of("start", 1L)));
+
+        byte[] newer = encoded.clone();
+        newer[1] = PartitionRequestCodec.VERSION + 1;
+        assertThatThrownBy(() -> PartitionRequestCodec.decode(newer))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("version");
+
+        assertThatThrownBy(() -> PartitionRequestCodec.decode(Arrays.copyOf(encoded, encoded.length - 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsLengthsLargerThanTheMessage() {
+        // 600 000 000 context entries announced in a 15 byte message
+        byte[] entries = {PartitionRequestCodec.MAGIC, PartitionRequestCodec.VERSION, PartitionRequestCodec.KIND_REQUEST,
+                1, 2, 4, 's', 't', 'e', 'p', (byte) 0x80, (byte) 0x8c, (byte) 0x8d, (byte) 0x9e, 0x02};
+        assertThat(entries).hasSize(15);
+        assertThatThrownBy(() -> PartitionRequestCodec.decode(entries))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("600000000");
+
+        // a step name of Integer.MAX_VALUE bytes, position + length would overflow
+        byte[] string = {PartitionRequestCodec.MAGIC, PartitionRequestCodec.VERSION, PartitionRequestCodec.KIND_REQUEST,
+                1, 2, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x07, 's'};
+        assertThatThrownBy(() -> PartitionRequestCodec.decode(string))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Truncated");
+    }
+
+    @Test
+    void rejectsUnsupportedContextValues() {
+        PartitionRequest request = new PartitionRequest(1L, 2L, "step", Map.of("when", new java.util.Date()));
+
+        assertThatThrownBy(() -> PartitionRequestCodec.encode(request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("when");
+    }
+}
@@ -0,0 +1,107 @@
+package kia.example.springbatch.partitioningWithKafka;
+
+import kia.example.springbatch.PersonFixture;
+import kia.example.springbatch.partitioning.ColumnRangePartitioner;
+import kia.example.springbatch.partitioning.PartitionGridSize;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Delivers every partition request to two workers at once, as a redelivery after a rebalance can:
+ * only one of them may claim and run the partition, so every row is written exactly once.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:partitionWorker")
+class PartitionWorkerTest {
+
+    private static final int ROWS = 3_000;
+
+    @Autowired
+    private JobLauncher jobLauncher;
+    @Autowired
+    private JobRepository jobRepository;
+    @Autowired
+    private JobExplorer jobExplorer;
+    @Autowired
+    private PartitionWorker worker;
+    @Autowired
+    private PartitionGridSize partitionGridSize;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    @Qualifier("partitionerWithKafka")
+    private ColumnRangePartitioner partitioner;
+
+    @AfterEach
+    void cleanUp() {
+        PersonFixture.deleteAll(jdbcTemplate);
+        jdbcTemplate.update("DELETE FROM person_after_process");
+    }
+
+    @Test
+    void runsADuplicatedRequestOnce() throws Exception {
+        PersonFixture.insert(jdbcTemplate, 0, ROWS);
+        long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person", Long.class);
+
+        KafkaTemplate<String, PartitionRequest> deliverTwice = new KafkaTemplate<>(() -> null) {
+            @Override
+            public CompletableFuture<SendResult<String, PartitionRequest>> send(String topic, String key, PartitionRequest data) {
+                CyclicBarrier together = new CyclicBarrier(2);
+                for (int i = 0; i < 2; i++) {
+                    new Thread(() -> {
+                        try {
+                            together.await();
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                        worker.listen(data);
+                    }).start();
+                }
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+        Job job = new JobBuilder("duplicatedPartitionRequests", jobRepository)
+                .start(new StepBuilder("managerStep", jobRepository)
+                        .partitioner("workerStepConfigPartitioningKafka", partitioner)
+                        .partitionHandler(new KafkaPartitionHandler(deliverTwice, "batch-partitions", partitionGridSize,
+                                jobExplorer, "workerStepConfigPartitioningKafka", 100, 60_000))
+                        .build())
+                .build();
+
+        JobExecution execution = jobLauncher.run(job, new JobParametersBuilder()
+                .addString("run", UUID.randomUUID().toString())
+                .addLong("gridSize", 3L)
+                .toJobParameters());
+
+        assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        // the launcher's copies of the partitions are the manager's, the workers' counts are in the repository
+        long read = jobExplorer.getJobExecution(execution.getId()).getStepExecutions().stream()
+                .filter(step -> step.getStepName().startsWith("workerStepConfigPartitioningKafka"))
+                .mapToLong(StepExecution::getReadCount)
+                .sum();
+        assertThat(read).isEqualTo(total);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person_after_process", Long.class))
+                .isEqualTo(total);
+    }
+}
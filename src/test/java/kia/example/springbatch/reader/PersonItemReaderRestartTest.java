@@ -0,0 +1,76 @@
+package kia.example.springbatch.reader;
+
+import kia.example.springbatch.PersonFixture;
+import kia.example.springbatch.model.PersonRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reads part of an id range, saves the state and fails before the next commit: a new reader opened
+ * with that state, in the same or the other mode, must go on right after the last saved id, and stop
+ * at the end of the range. Pages and fetches are smaller than the range so the restart lands between them.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:readerRestart")
+class PersonItemReaderRestartTest {
+
+    private static final long START = PersonFixture.FIRST_ID + 10;
+    private static final long END = PersonFixture.FIRST_ID + 109;
+    private static final int COMMITTED = 25;
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void insertRows() {
+        PersonFixture.insert(jdbcTemplate, 0, 120);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        PersonFixture.deleteAll(jdbcTemplate);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"KEYSET, KEYSET", "CURSOR, CURSOR", "KEYSET, CURSOR", "CURSOR, KEYSET"})
+    void restartsAfterTheLastSavedId(PersonItemReaderFactory.Mode failed, PersonItemReaderFactory.Mode restarted) throws Exception {
+        ExecutionContext context = new ExecutionContext();
+        AbstractIdRangeItemReader<PersonRow> first = reader(failed);
+        first.open(context);
+        for (int i = 0; i < COMMITTED; i++) {
+            first.read();
+        }
+        first.update(context);
+        first.read(); // read but never committed
+        first.close();
+
+        AbstractIdRangeItemReader<PersonRow> second = reader(restarted);
+        second.open(context);
+        List<Long> ids = new ArrayList<>();
+        PersonRow person;
+        while ((person = second.read()) != null) {
+            ids.add(person.id());
+        }
+        second.close();
+
+        assertThat(ids).containsExactlyElementsOf(LongStream.rangeClosed(START + COMMITTED, END).boxed().toList());
+    }
+
+    private AbstractIdRangeItemReader<PersonRow> reader(PersonItemReaderFactory.Mode mode) {
+        return new PersonItemReaderFactory(dataSource, mode, 7, 7).create("personItemReader", START, END);
+    }
+}
@@ -0,0 +1,106 @@
+package kia.example.springbatch.reader;
+
+import kia.example.springbatch.PersonFixture;
+import jakarta.persistence.EntityManagerFactory;
+import kia.example.springbatch.model.Person;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.database.JpaPagingItemReader;
+import org.springframework.batch.item.database.builder.JpaPagingItemReaderBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Per-page latency of {@link PersonKeysetItemReader} across a large table, next to
+ * the OFFSET based {@link JpaPagingItemReader} sampled at the same depths.
+ * Run with {@code mvn test -Pbenchmark [-Dbench.rows=1000000] [-Dbench.page=100]}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class PersonKeysetReaderBenchmark {
+
+    private static final int ROWS = Integer.getInteger("bench.rows", 1_000_000);
+    private static final int PAGE = Integer.getInteger("bench.page", 100);
+    private static final int DECILES = 10;
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        PersonFixture.insert(jdbcTemplate, 0, ROWS);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        PersonFixture.deleteAll(jdbcTemplate);
+    }
+
+    @Test
+    void perPageLatencyStaysFlat() throws Exception {
+        PersonKeysetItemReader keyset = new PersonKeysetItemReader(dataSource);
+        keyset.setStart(PersonFixture.FIRST_ID);
+        keyset.setPageSize(PAGE);
+        keyset.open(new ExecutionContext());
+
+        long[] nanosPerDecile = new long[DECILES];
+        int[] pagesPerDecile = new int[DECILES];
+        int read = 0;
+        long pageStart = System.nanoTime();
+        while (keyset.read() != null) {
+            read++;
+            if (read % PAGE == 0) {
+                int decile = (int) ((long) (read - 1) * DECILES / ROWS);
+                nanosPerDecile[decile] += System.nanoTime() - pageStart;
+                pagesPerDecile[decile]++;
+                pageStart = System.nanoTime();
+            }
+        }
+        keyset.close();
+        assertThat(read).isEqualTo(ROWS);
+
+        System.out.printf("rows=%d page=%d%n", ROWS, PAGE);
+        System.out.println("depth  keyset us/page  offset us/page");
+        for (int decile = 0; decile < DECILES; decile++) {
+            int depth = (int) ((long) ROWS * decile / DECILES);
+            System.out.printf("%4d%%  %14.1f  %14.1f%n", decile * 10,
+                    nanosPerDecile[decile] / 1e3 / Math.max(1, pagesPerDecile[decile]),
+                    offsetPageNanos(depth) / 1e3);
+        }
+    }
+
+    /**
+     * Time to fetch and hand out one page with OFFSET paging when positioned at {@code depth}.
+     */
+    private long offsetPageNanos(int depth) throws Exception {
+        JpaPagingItemReader<Person> offset = new JpaPagingItemReaderBuilder<Person>()
+                .name("offsetReader")
+                .entityManagerFactory(entityManagerFactory)
+                .queryString("SELECT p FROM Person p WHERE p.id >= " + PersonFixture.FIRST_ID + " ORDER BY p.id")
+                .pageSize(PAGE)
+                .build();
+        offset.afterPropertiesSet();
+        ExecutionContext context = new ExecutionContext();
+        context.putInt("offsetReader.read.count", depth);
+        offset.open(context);
+        long begin = System.nanoTime();
+        for (int i = 0; i < PAGE; i++) {
+            offset.read();
+        }
+        long elapsed = System.nanoTime() - begin;
+        offset.close();
+        return elapsed;
+    }
+}
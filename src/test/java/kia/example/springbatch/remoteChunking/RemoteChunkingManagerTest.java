@@ -0,0 +1,135 @@
+package kia.example.springbatch.remoteChunking;
+
+import kia.example.springbatch.PersonFixture;
+import kia.example.springbatch.model.PersonAfterProcess;
+import kia.example.springbatch.model.PersonRow;
+import kia.example.springbatch.reader.AbstractIdRangeItemReader;
+import kia.example.springbatch.writer.PersonAfterProcessJdbcWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.item.SimpleChunkProcessor;
+import org.springframework.batch.integration.chunk.ChunkProcessorChunkHandler;
+import org.springframework.batch.integration.chunk.ChunkRequest;
+import org.springframework.batch.integration.chunk.RemoteChunkingManagerStepBuilder;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.core.MessagingTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs two remote chunking managers over the shared {@code remoteChunkingPersonReader} at the same
+ * time, with in-JVM workers behind the Kafka serializers: each must read the whole table, and its
+ * write count must be the rows its workers wrote, not twice that.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:remoteChunkingManager")
+class RemoteChunkingManagerTest {
+
+    private static final int ROWS = 2_000;
+
+    @Autowired
+    private JobLauncher jobLauncher;
+    @Autowired
+    private JobRepository jobRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ItemProcessor<PersonRow, PersonAfterProcess> personProcessor;
+    @Autowired
+    private PersonAfterProcessJdbcWriter personAfterProcessWriter;
+    @Autowired
+    @Qualifier("remoteChunkingPersonReader")
+    private AbstractIdRangeItemReader<PersonRow> reader;
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void cleanUp() {
+        workers.shutdownNow();
+        PersonFixture.deleteAll(jdbcTemplate);
+        jdbcTemplate.update("DELETE FROM person_after_process");
+    }
+
+    @Test
+    void overlappingManagersEachReadEveryRowOnce() throws Exception {
+        PersonFixture.insert(jdbcTemplate, 0, ROWS);
+        long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person", Long.class);
+
+        CompletableFuture<JobExecution> first = CompletableFuture.supplyAsync(() -> run("first"));
+        CompletableFuture<JobExecution> second = CompletableFuture.supplyAsync(() -> run("second"));
+
+        for (JobExecution execution : new JobExecution[]{first.get(), second.get()}) {
+            assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+            assertThat(execution.getStepExecutions()).singleElement().satisfies(manager -> {
+                assertThat(manager.getReadCount()).isEqualTo(total);
+                assertThat(manager.getWriteCount()).isEqualTo(total);
+            });
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person_after_process", Long.class))
+                .isEqualTo(2 * total);
+    }
+
+    @SuppressWarnings("unchecked")
+    private JobExecution run(String name) {
+        ChunkMessageSerializer serializer = new ChunkMessageSerializer();
+        ChunkMessageDeserializer deserializer = new ChunkMessageDeserializer();
+        ChunkProcessorChunkHandler<PersonRow> chunkHandler = new ChunkProcessorChunkHandler<>();
+        chunkHandler.setChunkProcessor(new SimpleChunkProcessor<>(personProcessor, personAfterProcessWriter));
+        QueueChannel replies = new QueueChannel();
+        DirectChannel requests = new DirectChannel();
+        requests.subscribe(message -> {
+            byte[] request = serializer.serialize("batch-chunk-requests", message.getPayload());
+            workers.submit(() -> {
+                Object response = chunkHandler.handleChunk(
+                        (ChunkRequest<PersonRow>) deserializer.deserialize("batch-chunk-requests", request));
+                replies.send(new GenericMessage<>(deserializer.deserialize("batch-chunk-replies",
+                        serializer.serialize("batch-chunk-replies", response))));
+                return null;
+            });
+        });
+        MessagingTemplate messagingTemplate = new MessagingTemplate();
+        messagingTemplate.setDefaultChannel(requests);
+        messagingTemplate.setReceiveTimeout(1000);
+        RemoteWriteCountListener writeCountListener = new RemoteWriteCountListener();
+        Step manager = new RemoteChunkingManagerStepBuilder<PersonRow, PersonAfterProcess>(name + "Manager", jobRepository)
+                .messagingTemplate(messagingTemplate)
+                .inputChannel(replies)
+                .throttleLimit(4L)
+                .maxWaitTimeouts(30)
+                .transactionManager(transactionManager)
+                .chunk(100)
+                .reader(reader)
+                .listener((StepExecutionListener) writeCountListener)
+                .listener((ItemWriteListener<Object>) writeCountListener)
+                .build();
+        try {
+            return jobLauncher.run(new JobBuilder(name + "RemoteChunking", jobRepository).start(manager).build(),
+                    new JobParametersBuilder().addString("run", UUID.randomUUID().toString()).toJobParameters());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
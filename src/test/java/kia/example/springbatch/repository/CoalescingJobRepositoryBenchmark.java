@@ -0,0 +1,118 @@
+package kia.example.springbatch.repository;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Metadata statements ({@code BATCH_*} tables) per item of a short worker-sized job, with the
+ * JDBC job repository and with {@link CoalescingJobRepository}.
+ * Run with {@code mvn test -Pbenchmark [-Dbench.items=1000] [-Dbench.chunk=10]}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class CoalescingJobRepositoryBenchmark {
+
+    private static final int ITEMS = Integer.getInteger("bench.items", 1_000);
+    private static final int CHUNK = Integer.getInteger("bench.chunk", 10);
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final AtomicLong metadataStatements = new AtomicLong();
+
+    @Test
+    void compareRepositories() throws Exception {
+        CountingDataSource counting = new CountingDataSource(dataSource);
+        JdbcTransactionManager transactionManager = new JdbcTransactionManager(counting);
+        JobRepositoryFactoryBean factory = new JobRepositoryFactoryBean();
+        factory.setDataSource(counting);
+        factory.setTransactionManager(transactionManager);
+        factory.afterPropertiesSet();
+        JobRepository jdbc = factory.getObject();
+
+        // warm up both paths before counting
+        run(jdbc, transactionManager);
+        run(new CoalescingJobRepository(jdbc, 60_000), transactionManager);
+
+        long plain = run(jdbc, transactionManager);
+        long coalesced = run(new CoalescingJobRepository(jdbc, 60_000), transactionManager);
+
+        System.out.printf("items=%d chunk=%d metadata statements: jdbc %d (%.3f/item), coalescing %d (%.3f/item)%n",
+                ITEMS, CHUNK, plain, (double) plain / ITEMS, coalesced, (double) coalesced / ITEMS);
+        assertThat(coalesced).isLessThan(plain);
+    }
+
+    private long run(JobRepository jobRepository, JdbcTransactionManager transactionManager) throws Exception {
+        Job job = new JobBuilder("coalescingBenchmarkJob", jobRepository)
+                .start(new StepBuilder("coalescingBenchmarkStep", jobRepository)
+                        .<Integer, Integer>chunk(CHUNK, transactionManager)
+                        .reader(new ListItemReader<>(IntStream.range(0, ITEMS).boxed().toList()))
+                        .writer(chunk -> {
+                        })
+                        .build())
+                .build();
+        TaskExecutorJobLauncher launcher = new TaskExecutorJobLauncher();
+        launcher.setJobRepository(jobRepository);
+        launcher.afterPropertiesSet();
+
+        long before = metadataStatements.get();
+        JobExecution execution = launcher.run(job, new JobParametersBuilder()
+                .addString("run", UUID.randomUUID().toString())
+                .toJobParameters());
+        assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        assertThat(execution.getStepExecutions().iterator().next().getWriteCount()).isEqualTo(ITEMS);
+        return metadataStatements.get() - before;
+    }
+
+    /**
+     * Counts the statements prepared against the {@code BATCH_} tables.
+     */
+    private class CountingDataSource extends DelegatingDataSource {
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare") && args != null && args[0] instanceof String sql
+                                && sql.toUpperCase().contains("BATCH_")) {
+                            metadataStatements.incrementAndGet();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException ex) {
+                            throw ex.getTargetException();
+                        }
+                    });
+        }
+    }
+}
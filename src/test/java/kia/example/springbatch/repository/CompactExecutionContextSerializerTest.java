@@ -0,0 +1,70 @@
+package kia.example.springbatch.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.repository.dao.Jackson2ExecutionContextStringSerializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompactExecutionContextSerializerTest {
+
+    private final CompactExecutionContextSerializer serializer = new CompactExecutionContextSerializer("compact");
+
+    @Test
+    void roundTripsEverySupportedType() throws Exception {
+        Map<String, Object> context = new HashMap<>();
+        context.put("start", 1L);
+        context.put("end", Long.MAX_VALUE);
+        context.put("personItemReader.read.count", 42);
+        context.put("min", Integer.MIN_VALUE);
+        context.put("ratio", 0.1);
+        context.put("last", true);
+        context.put("batch.stepType", "org.springframework.batch.core.step.tasklet.TaskletStep");
+        context.put("key=with\\odd\nchars", "value=with\\odd\nchars ü€");
+        context.put("", "");
+
+        byte[] bytes = serialize(serializer, context);
+
+        assertThat(new String(bytes, StandardCharsets.UTF_8)).startsWith(CompactExecutionContextSerializer.HEADER);
+        Map<String, Object> read = serializer.deserialize(new ByteArrayInputStream(bytes));
+        assertThat(read).isEqualTo(context);
+        assertThat(read.get("personItemReader.read.count")).isInstanceOf(Integer.class);
+        assertThat(read.get("start")).isInstanceOf(Long.class);
+    }
+
+    @Test
+    void writesAndReadsTheDefaultFormatForOtherTypes() throws Exception {
+        Map<String, Object> context = new HashMap<>(Map.of("start", 1L, "when", new Date(0)));
+
+        byte[] bytes = serialize(serializer, context);
+        assertThat(new String(bytes, StandardCharsets.UTF_8)).doesNotStartWith(CompactExecutionContextSerializer.HEADER);
+        assertThat(serializer.deserialize(new ByteArrayInputStream(bytes))).isEqualTo(context);
+
+        // contexts stored before the switch
+        byte[] jackson = serialize(new Jackson2ExecutionContextStringSerializer(), new HashMap<>(Map.of("end", 9L)));
+        assertThat(serializer.deserialize(new ByteArrayInputStream(jackson))).isEqualTo(Map.of("end", 9L));
+    }
+
+    @Test
+    void rejectsTruncatedContexts() throws Exception {
+        byte[] bytes = serialize(serializer, Map.of("start", 1L));
+
+        assertThatThrownBy(() -> serializer.deserialize(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 1))))
+                .hasMessageContaining("Truncated");
+    }
+
+    private static byte[] serialize(org.springframework.batch.core.repository.ExecutionContextSerializer serializer,
+                                    Map<String, Object> context) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.serialize(context, out);
+        return out.toByteArray();
+    }
+}
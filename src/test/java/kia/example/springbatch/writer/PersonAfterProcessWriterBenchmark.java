@@ -0,0 +1,101 @@
+package kia.example.springbatch.writer;
+
+import jakarta.persistence.EntityManagerFactory;
+import kia.example.springbatch.model.PersonAfterProcess;
+import kia.example.springbatch.model.PersonAfterProcessRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.database.JpaItemWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rows-per-second comparison of the old "save in the processor, merge in a JpaItemWriter"
+ * path against {@link PersonAfterProcessJdbcWriter}.
+ * Run with {@code mvn test -Pbenchmark [-Dbench.rows=100000] [-Dbench.chunk=10]}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class PersonAfterProcessWriterBenchmark {
+
+    private static final int ROWS = Integer.getInteger("bench.rows", 50_000);
+    private static final int CHUNK = Integer.getInteger("bench.chunk", 10);
+
+    @Autowired
+    private PersonAfterProcessRepository repository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PersonAfterProcessJdbcWriter jdbcWriter;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM person_after_process");
+    }
+
+    @Test
+    void compareWriters() throws Exception {
+        JpaItemWriter<PersonAfterProcess> jpaWriter = new JpaItemWriter<>();
+        jpaWriter.setEntityManagerFactory(entityManagerFactory);
+        jpaWriter.afterPropertiesSet();
+
+        // warm up both paths before measuring
+        run(chunk -> {
+            chunk.forEach(repository::save);
+            jpaWriter.write(chunk);
+        }, ROWS / 10);
+        run(jdbcWriter, ROWS / 10);
+        cleanUp();
+
+        double legacy = run(chunk -> {
+            chunk.forEach(repository::save);
+            jpaWriter.write(chunk);
+        }, ROWS);
+        assertThat(count()).isEqualTo(ROWS);
+        cleanUp();
+
+        double jdbc = run(jdbcWriter, ROWS);
+        assertThat(count()).isEqualTo(ROWS);
+
+        System.out.printf("rows=%d chunk=%d save+JpaItemWriter: %.0f rows/s, JDBC batch: %.0f rows/s (x%.1f)%n",
+                ROWS, CHUNK, legacy, jdbc, jdbc / legacy);
+    }
+
+    private double run(ItemWriter<PersonAfterProcess> writer, int rows) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long begin = System.nanoTime();
+        for (int written = 0; written < rows; written += CHUNK) {
+            List<PersonAfterProcess> items = new ArrayList<>(CHUNK);
+            for (int i = written; i < Math.min(rows, written + CHUNK); i++) {
+                items.add(new PersonAfterProcess("first" + i + " last" + i));
+            }
+            tx.executeWithoutResult(status -> {
+                try {
+                    writer.write(new Chunk<>(items));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        return rows / ((System.nanoTime() - begin) / 1e9);
+    }
+
+    private long count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person_after_process", Long.class);
+    }
+}